@@ -0,0 +1,25 @@
+package com.uci.orchestrator.Admin;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Checks the admin-token header of the operator endpoints (pipeline tuning, broadcast
+ * scheduling, starting a replay) against orchestrator.admin.token. The endpoints are disabled unless it is set.
+ */
+@Component
+public class AdminAuthorization {
+
+    @Value("${orchestrator.admin.token:}")
+    private String adminToken;
+
+    public boolean isAuthorized(String token) {
+        if (adminToken.isEmpty() || token == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(adminToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+}
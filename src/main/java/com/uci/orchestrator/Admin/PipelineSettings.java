@@ -0,0 +1,40 @@
+package com.uci.orchestrator.Admin;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Current pipeline settings, as shown (and after a change, returned) by the admin API.
+ */
+@Data
+public class PipelineSettings {
+
+    @Data
+    public static class Lanes {
+        private int totalPermits;
+        private int interactiveReserved;
+        private Map<String, Integer> inFlight;
+        private Map<String, Integer> queued;
+    }
+
+    @Data
+    public static class Cache {
+        private int size;
+        private int maxSize;
+        private long ttlMs;
+    }
+
+    private Lanes lanes;
+
+    /**
+     * Inbound consumer fetch settings; fixed for the life of the consumer, use partition
+     * pause/resume and lane permits to throttle at runtime
+     */
+    private Map<String, Object> fetch;
+
+    private Map<String, Map<String, Object>> producers;
+    private Map<String, Cache> caches;
+    private List<String> pausedPartitions;
+}
@@ -0,0 +1,170 @@
+package com.uci.orchestrator.Admin;
+
+import com.uci.orchestrator.Cache.TieredCache;
+import com.uci.orchestrator.Cache.TieredCaches;
+import com.uci.orchestrator.Consumer.ReactiveConsumer;
+import com.uci.orchestrator.Execution.PriorityLanes;
+import com.uci.orchestrator.Publisher.TunableKafkaSender;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.kafka.receiver.ReceiverOptions;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Runtime tuning of the pipeline: lane permits (the cap on messages in flight), producer
+ * linger and batch size, cache sizes and TTLs, and pausing consumption per partition.
+ * Every change applies immediately and is logged; nothing is persisted, a restart goes back
+ * to application.properties.
+ */
+@Slf4j
+@Component
+public class PipelineTuning {
+
+    private static final List<String> FETCH_PROPERTIES = Arrays.asList(ConsumerConfig.MAX_POLL_RECORDS_CONFIG,
+            ConsumerConfig.FETCH_MIN_BYTES_CONFIG, ConsumerConfig.FETCH_MAX_BYTES_CONFIG, ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG,
+            ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG);
+
+    private static final List<String> PRODUCER_PROPERTIES = Arrays.asList(ProducerConfig.LINGER_MS_CONFIG,
+            ProducerConfig.BATCH_SIZE_CONFIG, ProducerConfig.CLIENT_ID_CONFIG);
+
+    @Autowired
+    private PriorityLanes priorityLanes;
+
+    @Autowired
+    private TieredCaches tieredCaches;
+
+    @Autowired
+    private ReactiveConsumer reactiveConsumer;
+
+    @Autowired
+    private ReceiverOptions<String, String> kafkaReceiverOptions;
+
+    @Autowired
+    private List<TunableKafkaSender<?, ?>> producers;
+
+    public PipelineSettings settings() {
+        PipelineSettings settings = new PipelineSettings();
+
+        PipelineSettings.Lanes lanes = new PipelineSettings.Lanes();
+        lanes.setTotalPermits(priorityLanes.totalPermits());
+        lanes.setInteractiveReserved(priorityLanes.reservedInteractive());
+        lanes.setInFlight(new TreeMap<>());
+        lanes.setQueued(new TreeMap<>());
+        for (PriorityLanes.Lane lane : PriorityLanes.Lane.values()) {
+            lanes.getInFlight().put(lane.name(), priorityLanes.inFlight(lane));
+            lanes.getQueued().put(lane.name(), priorityLanes.queued(lane));
+        }
+        settings.setLanes(lanes);
+
+        Map<String, Object> fetch = new TreeMap<>();
+        for (String property : FETCH_PROPERTIES) {
+            fetch.put(property, kafkaReceiverOptions.consumerProperty(property));
+        }
+        settings.setFetch(fetch);
+
+        Map<String, Map<String, Object>> producerSettings = new TreeMap<>();
+        for (TunableKafkaSender<?, ?> producer : producers) {
+            Map<String, Object> properties = producer.producerProperties();
+            Map<String, Object> shown = new TreeMap<>();
+            for (String property : PRODUCER_PROPERTIES) {
+                shown.put(property, properties.get(property));
+            }
+            producerSettings.put(producer.getName(), shown);
+        }
+        settings.setProducers(producerSettings);
+
+        Map<String, PipelineSettings.Cache> caches = new TreeMap<>();
+        for (TieredCache cache : tieredCaches.all()) {
+            PipelineSettings.Cache cacheSettings = new PipelineSettings.Cache();
+            cacheSettings.setSize(cache.getLocal().size());
+            cacheSettings.setMaxSize(cache.getLocal().getMaxSize());
+            cacheSettings.setTtlMs(cache.getTtl().toMillis());
+            caches.put(cache.getName(), cacheSettings);
+        }
+        settings.setCaches(caches);
+
+        settings.setPausedPartitions(reactiveConsumer.pausedPartitions().stream()
+                .map(TopicPartition::toString).sorted().collect(Collectors.toList()));
+        return settings;
+    }
+
+    public void setLanes(Integer totalPermits, Integer interactiveReserved) {
+        int total = totalPermits == null ? priorityLanes.totalPermits() : totalPermits;
+        int reserved = interactiveReserved == null ? priorityLanes.reservedInteractive() : interactiveReserved;
+        priorityLanes.setLimits(total, reserved);
+        log.info("Admin: lane permits set to {} ({} reserved for interactive)", total, reserved);
+    }
+
+    public void setProducer(String name, Integer lingerMs, Integer batchSize) {
+        TunableKafkaSender<?, ?> producer = producers.stream()
+                .filter(candidate -> candidate.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown producer " + name));
+        Map<String, Object> changes = new HashMap<>();
+        if (lingerMs != null) {
+            changes.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        }
+        if (batchSize != null) {
+            changes.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        }
+        if (!changes.isEmpty()) {
+            producer.reconfigure(changes);
+            log.info("Admin: producer {} set to {}", name, changes);
+        }
+    }
+
+    public void setCache(String name, Integer maxSize, Long ttlMs) {
+        if (maxSize != null && maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1");
+        }
+        if (ttlMs != null && ttlMs < 0) {
+            throw new IllegalArgumentException("Cache TTL must not be negative");
+        }
+        TieredCache cache = cache(name);
+        if (maxSize != null) {
+            cache.getLocal().setMaxSize(maxSize);
+        }
+        if (ttlMs != null) {
+            cache.setTtl(Duration.ofMillis(ttlMs));
+        }
+        log.info("Admin: cache {} set to maxSize {}, ttl {} ms", name, cache.getLocal().getMaxSize(), cache.getTtl().toMillis());
+    }
+
+    /**
+     * Drop an entry (e.g. of a bot whose adapter was changed) on every instance.
+     */
+    public void invalidateCache(String name, String key) {
+        cache(name);
+        tieredCaches.invalidate(name, key).block(Duration.ofSeconds(10));
+        log.info("Admin: invalidated {} in cache {}", key, name);
+    }
+
+    private TieredCache cache(String name) {
+        // Look up existing caches only, TieredCaches.get would create one
+        return tieredCaches.all().stream()
+                .filter(candidate -> candidate.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown cache " + name));
+    }
+
+    public void pause(TopicPartition partition) {
+        reactiveConsumer.pause(partition).block(Duration.ofSeconds(10));
+        log.info("Admin: paused {}", partition);
+    }
+
+    public void resume(TopicPartition partition) {
+        reactiveConsumer.resume(partition).block(Duration.ofSeconds(10));
+        log.info("Admin: resumed {}", partition);
+    }
+}
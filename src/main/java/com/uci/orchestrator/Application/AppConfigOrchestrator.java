@@ -1,20 +1,39 @@
 package com.uci.orchestrator.Application;
 
 import com.uci.dao.service.HealthService;
+import com.uci.orchestrator.Cache.InMemorySharedCacheTier;
+import com.uci.orchestrator.Cache.SharedCacheTier;
+import com.uci.orchestrator.Consumer.PartitionRebalanceListener;
+import com.uci.orchestrator.Dedup.InMemoryProcessedMessageStore;
+import com.uci.orchestrator.Dedup.ProcessedMessageStore;
 import com.uci.orchestrator.Drools.DroolsBeanFactory;
+import com.uci.orchestrator.Execution.BlockingExecution;
+import com.uci.orchestrator.Execution.PriorityLanes;
+import com.uci.orchestrator.Publisher.TunableKafkaSender;
 import com.uci.utils.CampaignService;
 import com.uci.utils.kafka.ReactiveProducer;
 import io.fusionauth.client.FusionAuthClient;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.kie.api.io.Resource;
 import org.kie.api.runtime.KieSession;
 import org.kie.internal.io.ResourceFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.SeekToCurrentBatchErrorHandler;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 import reactor.kafka.receiver.KafkaReceiver;
@@ -23,6 +42,8 @@ import reactor.kafka.receiver.ReceiverRecord;
 import reactor.kafka.sender.KafkaSender;
 import reactor.kafka.sender.SenderOptions;
 
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -33,7 +54,17 @@ public class AppConfigOrchestrator {
     @Value("${spring.kafka.bootstrap-servers}")
     private String BOOTSTRAP_SERVERS;
 
-    private final String GROUP_ID = "orchestrator";
+    @Value("${orchestrator.consumer.group-id:orchestrator}")
+    private String GROUP_ID;
+
+    @Value("${orchestrator.consumer.partition-assignment-strategy:org.apache.kafka.clients.consumer.CooperativeStickyAssignor}")
+    private String PARTITION_ASSIGNMENT_STRATEGY;
+
+    @Value("${orchestrator.consumer.commit-interval-ms:1000}")
+    private long COMMIT_INTERVAL_MS;
+
+    @Value("${orchestrator.publish.retire-delay-ms:30000}")
+    private long PRODUCER_RETIRE_DELAY_MS;
 
     @Value("${campaign.url}")
     public String CAMPAIGN_URL;
@@ -53,15 +84,51 @@ public class AppConfigOrchestrator {
     }
 
     @Bean
-    public CampaignService getCampaignService() {
-        WebClient webClient = WebClient.builder()
+    public CampaignService getCampaignService(WebClient.Builder webClientBuilder, FusionAuthClient fusionAuthClient) {
+        // The builder is pre-configured with the shared connection pool (see WebClientConfig)
+        WebClient webClient = webClientBuilder
                 .baseUrl(CAMPAIGN_URL)
                 .defaultHeader("admin-token", CAMPAIGN_ADMIN_TOKEN)
                 .build();
-        FusionAuthClient fusionAuthClient = getFAClient();
         return new CampaignService(webClient, fusionAuthClient);
     }
 
+    @Bean
+    public ProcessedMessageStore processedMessageStore(@Value("${orchestrator.dedup.window-ms:3600000}") long windowMs,
+                                                       @Value("${orchestrator.dedup.max-entries:500000}") int maxEntries,
+                                                       @Value("${orchestrator.dedup.persistence-path:}") String persistencePath,
+                                                       @Value("${orchestrator.dedup.flush-interval-ms:1000}") long flushIntervalMs) {
+        return new InMemoryProcessedMessageStore(windowMs, maxEntries,
+                persistencePath.isEmpty() ? null : Paths.get(persistencePath), flushIntervalMs);
+    }
+
+    @Bean
+    public BlockingExecution blockingExecution(@Value("${orchestrator.blocking.mode:REACTIVE}") BlockingExecution.Mode mode,
+                                               @Value("${orchestrator.blocking.thread-cap:256}") int threadCap,
+                                               @Value("${orchestrator.blocking.queued-task-cap:100000}") int queuedTaskCap) {
+        return new BlockingExecution(mode, threadCap, queuedTaskCap);
+    }
+
+    @Bean
+    public PriorityLanes priorityLanes(@Value("${orchestrator.lanes.total-permits:256}") int totalPermits,
+                                       @Value("${orchestrator.lanes.interactive-reserved:64}") int interactiveReserved,
+                                       @Value("${orchestrator.lanes.max-queued:100000}") int maxQueued,
+                                       MeterRegistry meterRegistry) {
+        return new PriorityLanes(totalPermits, interactiveReserved, maxQueued, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "orchestrator.cache.shared-tier", havingValue = "in-memory")
+    public SharedCacheTier inMemorySharedCacheTier() {
+        return new InMemorySharedCacheTier();
+    }
+
+    @Bean
+    public NewTopic cacheInvalidationTopic(@Value("${orchestrator.cache.invalidation-topic:orchestrator-cache-invalidation}") String topic,
+                                           @Value("${orchestrator.cache.invalidation-topic-replicas:1}") int replicas) {
+        return TopicBuilder.name(topic).partitions(1).replicas(replicas).compact().build();
+    }
+
     @Bean
     public KieSession DroolSession() {
         Resource resource = ResourceFactory.newClassPathResource("OrchestratorRules.xlsx", getClass());
@@ -77,9 +144,31 @@ public class AppConfigOrchestrator {
         configuration.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, org.springframework.kafka.support.serializer.JsonSerializer.class);
         configuration.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, org.springframework.kafka.support.serializer.JsonSerializer.class);
         configuration.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        configuration.put(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, PARTITION_ASSIGNMENT_STRATEGY);
         return configuration;
     }
 
+    /**
+     * Batch listener container for campaign triggers; offsets are committed once per batch.
+     * The listener retries and dead-letters failing triggers itself, so it only throws when the
+     * dead letter topic cannot be written either. Such a batch is not committed: the consumer
+     * seeks back and redelivers it after a pause, until Kafka takes the records again, and the
+     * listener skips the triggers already handled.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> campaignBatchListenerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer, ConsumerFactory<Object, Object> consumerFactory,
+            @Value("${campaign.batch.retry-interval-ms:5000}") long retryIntervalMs) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        SeekToCurrentBatchErrorHandler errorHandler = new SeekToCurrentBatchErrorHandler();
+        errorHandler.setBackOff(new FixedBackOff(retryIntervalMs, FixedBackOff.UNLIMITED_ATTEMPTS));
+        factory.setBatchErrorHandler(errorHandler);
+        return factory;
+    }
+
     @Bean
     Map<String, Object> kafkaProducerConfiguration() {
         Map<String, Object> configuration = new HashMap<>();
@@ -92,9 +181,13 @@ public class AppConfigOrchestrator {
     }
 
     @Bean
-    ReceiverOptions<String, String> kafkaReceiverOptions(@Value("${inboundProcessed}") String[] inTopicName) {
+    ReceiverOptions<String, String> kafkaReceiverOptions(@Value("${inboundProcessed}") String[] inTopicName,
+                                                         PartitionRebalanceListener partitionRebalanceListener) {
         ReceiverOptions<String, String> options = ReceiverOptions.create(kafkaConsumerConfiguration());
         return options.subscription(Arrays.asList(inTopicName))
+                .addAssignListener(partitionRebalanceListener::onAssigned)
+                .addRevokeListener(partitionRebalanceListener::onRevoked)
+                .commitInterval(Duration.ofMillis(COMMIT_INTERVAL_MS))
                 .withKeyDeserializer(new JsonDeserializer<>())
                 .withValueDeserializer(new JsonDeserializer());
     }
@@ -105,8 +198,13 @@ public class AppConfigOrchestrator {
     }
 
     @Bean
-    Flux<ReceiverRecord<String, String>> reactiveKafkaReceiver(ReceiverOptions<String, String> kafkaReceiverOptions) {
-        return KafkaReceiver.create(kafkaReceiverOptions).receive();
+    KafkaReceiver<String, String> kafkaReceiver(ReceiverOptions<String, String> kafkaReceiverOptions) {
+        return KafkaReceiver.create(kafkaReceiverOptions);
+    }
+
+    @Bean
+    Flux<ReceiverRecord<String, String>> reactiveKafkaReceiver(KafkaReceiver<String, String> kafkaReceiver) {
+        return kafkaReceiver.receive();
     }
 
     @Bean
@@ -114,6 +212,35 @@ public class AppConfigOrchestrator {
         return KafkaSender.create(kafkaSenderOptions);
     }
 
+    @Bean
+    TunableKafkaSender<String, String> keyedKafkaSender(@Value("${orchestrator.publish.partitioner-class:org.apache.kafka.clients.producer.internals.DefaultPartitioner}") String partitionerClass) {
+        Map<String, Object> configuration = new HashMap<>(kafkaProducerConfiguration());
+        configuration.put(ProducerConfig.CLIENT_ID_CONFIG, "orchestrator-keyed-producer");
+        // Plain string keys, so any partitioner or non-Java consumer sees the user ID itself
+        configuration.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configuration.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, partitionerClass);
+        return new TunableKafkaSender<>("interactive", SenderOptions.<String, String>create(configuration), Duration.ofMillis(PRODUCER_RETIRE_DELAY_MS));
+    }
+
+    /**
+     * Separate producer for campaign broadcasts so that a large broadcast cannot fill the
+     * buffer (and delay the sends) of the producer used for interactive replies.
+     */
+    @Bean
+    TunableKafkaSender<String, String> bulkKafkaSender(@Value("${orchestrator.publish.partitioner-class:org.apache.kafka.clients.producer.internals.DefaultPartitioner}") String partitionerClass,
+                                                @Value("${orchestrator.publish.bulk.linger-ms:50}") int lingerMs,
+                                                @Value("${orchestrator.publish.bulk.batch-size:262144}") int batchSize,
+                                                @Value("${orchestrator.publish.bulk.max-in-flight:256}") int maxInFlight) {
+        Map<String, Object> configuration = new HashMap<>(kafkaProducerConfiguration());
+        configuration.put(ProducerConfig.CLIENT_ID_CONFIG, "orchestrator-bulk-producer");
+        // Plain string keys, so any partitioner or non-Java consumer sees the user ID itself
+        configuration.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configuration.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, partitionerClass);
+        configuration.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        configuration.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        return new TunableKafkaSender<>("bulk", SenderOptions.<String, String>create(configuration).maxInFlight(maxInFlight), Duration.ofMillis(PRODUCER_RETIRE_DELAY_MS));
+    }
+
     @Bean
     ReactiveProducer kafkaReactiveProducer() {
         return new ReactiveProducer();
@@ -0,0 +1,91 @@
+package com.uci.orchestrator.Application;
+
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.handler.timeout.WriteTimeoutHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared HTTP client layer for outbound service calls (campaign, bot service). All WebClients
+ * built from the Spring WebClient.Builder reuse one pooled Reactor Netty connection provider,
+ * so connection setup is paid once per host instead of showing up in per-message latency.
+ */
+@Configuration
+public class WebClientConfig {
+
+    @Value("${orchestrator.http.max-connections:200}")
+    private int maxConnections;
+
+    @Value("${orchestrator.http.pending-acquire-timeout-ms:5000}")
+    private long pendingAcquireTimeoutMs;
+
+    @Value("${orchestrator.http.max-idle-time-ms:30000}")
+    private long maxIdleTimeMs;
+
+    @Value("${orchestrator.http.connect-timeout-ms:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${orchestrator.http.response-timeout-ms:10000}")
+    private long responseTimeoutMs;
+
+    @Value("${orchestrator.http.max-in-memory-size:2097152}")
+    private int maxInMemorySize;
+
+    @Value("${orchestrator.http.http2-enabled:false}")
+    private boolean http2Enabled;
+
+    @Value("${orchestrator.http.compression-enabled:true}")
+    private boolean compressionEnabled;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider orchestratorConnectionProvider() {
+        return ConnectionProvider.fixed("orchestrator-http", maxConnections, pendingAcquireTimeoutMs,
+                Duration.ofMillis(maxIdleTimeMs));
+    }
+
+    @Bean
+    public ClientHttpConnector orchestratorClientHttpConnector(ConnectionProvider orchestratorConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(orchestratorConnectionProvider)
+                .tcpConfiguration(tcpClient -> tcpClient
+                        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                        .option(ChannelOption.SO_KEEPALIVE, true)
+                        .doOnConnected(connection -> connection
+                                .addHandlerLast(new ReadTimeoutHandler(responseTimeoutMs, TimeUnit.MILLISECONDS))
+                                .addHandlerLast(new WriteTimeoutHandler(responseTimeoutMs, TimeUnit.MILLISECONDS))))
+                .compress(compressionEnabled)
+                // Connection pool and per remote host request metrics
+                .metrics(true);
+        if (http2Enabled) {
+            // HTTP/2 is negotiated over TLS (ALPN); plain HTTP hosts keep using HTTP/1.1
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+        }
+        return new ReactorClientHttpConnector(httpClient);
+    }
+
+    @Bean
+    public ExchangeStrategies orchestratorExchangeStrategies() {
+        return ExchangeStrategies.builder()
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(maxInMemorySize))
+                .build();
+    }
+
+    @Bean
+    public WebClientCustomizer orchestratorWebClientCustomizer(ClientHttpConnector orchestratorClientHttpConnector,
+                                                               ExchangeStrategies orchestratorExchangeStrategies) {
+        return webClientBuilder -> webClientBuilder
+                .clientConnector(orchestratorClientHttpConnector)
+                .exchangeStrategies(orchestratorExchangeStrategies);
+    }
+}
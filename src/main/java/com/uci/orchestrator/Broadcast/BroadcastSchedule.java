@@ -0,0 +1,29 @@
+package com.uci.orchestrator.Broadcast;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A campaign broadcast waiting for its start time, or for a retry after a failed release.
+ */
+@Data
+@NoArgsConstructor
+public class BroadcastSchedule {
+
+    public enum Status {PENDING, FAILED}
+
+    private String id;
+    private String campaignID;
+    private long startTime;
+    private Status status = Status.PENDING;
+    private int attempts;
+    private String lastError;
+    private long nextAttemptAt;
+
+    public BroadcastSchedule(String id, String campaignID, long startTime) {
+        this.id = id;
+        this.campaignID = campaignID;
+        this.startTime = startTime;
+        this.nextAttemptAt = startTime;
+    }
+}
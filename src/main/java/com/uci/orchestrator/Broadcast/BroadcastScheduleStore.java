@@ -0,0 +1,111 @@
+package com.uci.orchestrator.Broadcast;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pending (and failed) broadcast schedules, optionally persisted as JSON lines so a restart resumes them.
+ * The file is small (one line per pending campaign) and rewritten atomically on every change.
+ */
+@Slf4j
+public class BroadcastScheduleStore {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Path path;
+    private final Map<String, BroadcastSchedule> schedules = new LinkedHashMap<>();
+
+    public BroadcastScheduleStore(Path path) {
+        this.path = path;
+        if (path != null) {
+            load();
+        }
+    }
+
+    public synchronized void add(BroadcastSchedule schedule) {
+        schedules.put(schedule.getId(), schedule);
+        save();
+    }
+
+    /**
+     * Record a failed release, keeping the schedule for a retry at {@code nextAttemptAt} or,
+     * if {@code giveUp}, as FAILED.
+     */
+    public synchronized void recordFailure(BroadcastSchedule schedule, String error, long nextAttemptAt, boolean giveUp) {
+        schedule.setAttempts(schedule.getAttempts() + 1);
+        schedule.setLastError(error);
+        schedule.setNextAttemptAt(nextAttemptAt);
+        if (giveUp) {
+            schedule.setStatus(BroadcastSchedule.Status.FAILED);
+        }
+        schedules.put(schedule.getId(), schedule);
+        save();
+    }
+
+    public synchronized void remove(String id) {
+        if (schedules.remove(id) != null) {
+            save();
+        }
+    }
+
+    public synchronized Collection<BroadcastSchedule> pending() {
+        return new ArrayList<>(schedules.values());
+    }
+
+    public synchronized int size() {
+        return schedules.size();
+    }
+
+    private void load() {
+        try {
+            if (!Files.exists(path)) {
+                return;
+            }
+            List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+            for (String line : lines) {
+                if (!line.isEmpty()) {
+                    BroadcastSchedule schedule = mapper.readValue(line, BroadcastSchedule.class);
+                    if (schedule.getNextAttemptAt() == 0) {
+                        schedule.setNextAttemptAt(schedule.getStartTime());
+                    }
+                    schedules.put(schedule.getId(), schedule);
+                }
+            }
+            log.info("Loaded {} pending broadcast schedules from {}", schedules.size(), path);
+        } catch (IOException e) {
+            log.error("Error loading broadcast schedules: " + e.getMessage());
+        }
+    }
+
+    private void save() {
+        if (path == null) {
+            return;
+        }
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (BroadcastSchedule schedule : schedules.values()) {
+                    writer.write(mapper.writeValueAsString(schedule));
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Error saving broadcast schedules: " + e.getMessage());
+        }
+    }
+}
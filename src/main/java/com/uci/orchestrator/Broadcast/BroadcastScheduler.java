@@ -0,0 +1,199 @@
+package com.uci.orchestrator.Broadcast;
+
+import com.uci.orchestrator.Consumer.CampaignConsumer;
+import com.uci.orchestrator.Execution.PriorityLanes;
+import com.uci.orchestrator.Publisher.XMessagePublisher;
+import com.uci.orchestrator.Resilience.DependencyUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import messagerosa.core.model.XMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.SenderResult;
+
+import javax.annotation.PostConstruct;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Releases campaign broadcasts at their start time, paced per provider/channel.
+ *
+ * Each XMessage built by {@link CampaignConsumer#processMessage(String)} takes a token from
+ * the bucket for its providerURI/channelURI before it is published. A campaign is published
+ * as a single broadcast XMessage that is fanned out to its recipients downstream, so the rate
+ * limits campaign releases per second, not messages per second to the provider: it keeps many
+ * campaigns from starting their fan-out at the same time. Pending schedules are persisted to
+ * campaign.scheduler.state-path, which is required, and resumed after a restart.
+ */
+@Slf4j
+@Component
+public class BroadcastScheduler {
+
+    @Autowired
+    private CampaignConsumer campaignConsumer;
+
+    @Autowired
+    private XMessagePublisher xMessagePublisher;
+
+    @Autowired
+    private PriorityLanes priorityLanes;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${campaign.broadcast-topic:com.odk.broadcast}")
+    private String broadcastTopic;
+
+    @Value("${campaign.scheduler.state-path:}")
+    private String statePath;
+
+    @Value("${campaign.scheduler.enabled:false}")
+    private boolean enabled;
+
+    @Value("${campaign.scheduler.default-campaigns-per-second:1}")
+    private double defaultCampaignsPerSecond;
+
+    @Value("${campaign.scheduler.retry-backoff-ms:30000}")
+    private long retryBackoffMs;
+
+    @Value("${campaign.scheduler.retry-max-backoff-ms:900000}")
+    private long retryMaxBackoffMs;
+
+    @Value("${campaign.scheduler.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${orchestrator.replay.enabled:false}")
+    private boolean replayEnabled;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private BroadcastScheduleStore store;
+
+    @PostConstruct
+    public void init() {
+        if (enabled && statePath.isEmpty()) {
+            // Scheduled triggers are committed once scheduled, so an in-memory schedule would be lost on restart
+            throw new IllegalStateException("campaign.scheduler.state-path is required when campaign.scheduler.enabled is set");
+        }
+        store = new BroadcastScheduleStore(statePath.isEmpty() ? null : Paths.get(statePath));
+        Gauge.builder("orchestrator.broadcast.pending", store, BroadcastScheduleStore::size).register(meterRegistry);
+        if (replayEnabled) {
+            log.info("Replay mode: not resuming {} persisted broadcast schedules", store.size());
+            return;
+        }
+        for (BroadcastSchedule schedule : store.pending()) {
+            if (schedule.getStatus() == BroadcastSchedule.Status.PENDING) {
+                timer(schedule);
+            }
+        }
+    }
+
+    /**
+     * Schedule a campaign broadcast.
+     *
+     * @param campaignID - Campaign Identifier
+     * @param startTime  - Epoch millis at which to start; past times start immediately
+     * @return the schedule
+     */
+    public BroadcastSchedule schedule(String campaignID, long startTime) {
+        BroadcastSchedule schedule = new BroadcastSchedule(UUID.randomUUID().toString(), campaignID, startTime);
+        store.add(schedule);
+        timer(schedule);
+        return schedule;
+    }
+
+    /**
+     * @return true if the campaign can be fetched and built into a broadcast; errors if the
+     * campaign service is unavailable
+     */
+    public Mono<Boolean> campaignExists(String campaignID) {
+        try {
+            return campaignConsumer.processMessage(campaignID)
+                    .map(xMessage -> true)
+                    .defaultIfEmpty(false)
+                    .onErrorResume(e -> !(e instanceof DependencyUnavailableException), e -> Mono.just(false));
+        } catch (Exception e) {
+            return Mono.just(false);
+        }
+    }
+
+    /**
+     * Release the broadcast at its (next) attempt time. The schedule is removed only once the
+     * broadcast was sent; a failure is recorded in the store and retried with exponential
+     * backoff, up to campaign.scheduler.max-attempts after which the schedule is kept as FAILED.
+     */
+    private void timer(BroadcastSchedule schedule) {
+        long delay = Math.max(0, schedule.getNextAttemptAt() - System.currentTimeMillis());
+        Mono.delay(Duration.ofMillis(delay))
+                .then(Mono.defer(() -> release(schedule)))
+                .subscribe(null, e -> retry(schedule, e), () -> store.remove(schedule.getId()));
+    }
+
+    private void retry(BroadcastSchedule schedule, Throwable e) {
+        int attempt = schedule.getAttempts() + 1;
+        boolean giveUp = attempt >= maxAttempts;
+        long backoff = Math.min(retryMaxBackoffMs, retryBackoffMs << Math.min(attempt - 1, 20));
+        store.recordFailure(schedule, e.getMessage(), System.currentTimeMillis() + backoff, giveUp);
+        Counter.builder("orchestrator.broadcast.failures").register(meterRegistry).increment();
+        if (giveUp) {
+            log.error("Giving up on broadcast " + schedule.getCampaignID() + " after " + attempt + " attempts: " + e.getMessage());
+        } else {
+            log.warn("Broadcast " + schedule.getCampaignID() + " failed (attempt " + attempt + "), retrying in " + backoff + " ms: " + e.getMessage());
+            timer(schedule);
+        }
+    }
+
+    private Mono<Void> release(BroadcastSchedule schedule) {
+        return priorityLanes.run(PriorityLanes.Lane.BULK, () -> {
+            try {
+                return campaignConsumer.processMessage(schedule.getCampaignID());
+            } catch (Exception e) {
+                return Mono.<XMessage>error(e);
+            }
+        }).flatMap(xMessage -> {
+            String key = xMessage.getProviderURI() + ":" + xMessage.getChannelURI();
+            long waitNanos = bucket(xMessage.getProviderURI(), xMessage.getChannelURI()).reserve();
+            Mono<Long> throttle = waitNanos > 0 ? Mono.delay(Duration.ofNanos(waitNanos)) : Mono.just(0L);
+            return throttle.then(Mono.defer(() -> {
+                try {
+                    return xMessagePublisher.publishBulk(Flux.just(xMessagePublisher.broadcastRecord(broadcastTopic, xMessage, schedule.getId())))
+                            .next();
+                } catch (Exception e) {
+                    return Mono.<SenderResult<String>>error(e);
+                }
+            })).doOnNext(result -> {
+                if (result.exception() != null) {
+                    throw Exceptions.propagate(result.exception());
+                }
+                Counter.builder("orchestrator.broadcast.released").tag("provider", key).register(meterRegistry).increment();
+                log.info("Released broadcast for campaign {} via {}", schedule.getCampaignID(), key);
+            });
+        }).switchIfEmpty(Mono.error(() -> new IllegalStateException("Campaign " + schedule.getCampaignID() + " produced no broadcast")))
+                .then();
+    }
+
+    /**
+     * Rates are configured per provider and channel as
+     * campaign.scheduler.campaigns-per-second.&lt;provider&gt;.&lt;channel&gt;, then per provider as
+     * campaign.scheduler.campaigns-per-second.&lt;provider&gt;, campaigns released per second.
+     */
+    private TokenBucket bucket(String provider, String channel) {
+        return buckets.computeIfAbsent(provider + ":" + channel, key -> {
+            Double providerRate = environment.getProperty("campaign.scheduler.campaigns-per-second." + provider, Double.class, defaultCampaignsPerSecond);
+            double rate = environment.getProperty("campaign.scheduler.campaigns-per-second." + provider + "." + channel, Double.class, providerRate);
+            return new TokenBucket(rate, rate);
+        });
+    }
+}
@@ -0,0 +1,45 @@
+package com.uci.orchestrator.Broadcast;
+
+/**
+ * Token bucket that hands out reservations: a caller takes a token immediately and is told
+ * how long to wait before using it, so waiting callers are released at the target rate in
+ * arrival order.
+ */
+public class TokenBucket {
+
+    private final double ratePerSecond;
+    private final double capacity;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double ratePerSecond, double capacity) {
+        this.ratePerSecond = ratePerSecond;
+        this.capacity = Math.max(1, capacity);
+        this.tokens = this.capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Reserve one token.
+     *
+     * @return nanoseconds the caller has to wait before the token may be used (0 if available now)
+     */
+    public synchronized long reserve() {
+        refill();
+        tokens -= 1;
+        if (tokens >= 0) {
+            return 0;
+        }
+        return (long) (-tokens / ratePerSecond * 1_000_000_000L);
+    }
+
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) / 1_000_000_000.0 * ratePerSecond);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,173 @@
+package com.uci.orchestrator.Cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOptions;
+import reactor.kafka.receiver.ReceiverPartition;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+import reactor.kafka.sender.SenderRecord;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Cross-instance cache invalidation over a compacted Kafka topic.
+ *
+ * Record key is "&lt;cache&gt;:&lt;key&gt;" and value the id of the publishing instance. Every
+ * instance reads all partitions of the topic from the end, with a manual assignment and no
+ * consumer group (nothing is committed, so no group is left behind on the broker by restarts),
+ * and drops the local entry. Partitions are looked up once at startup.
+ *
+ * The orchestrator only reads bots and users, it never changes them, so it does not publish
+ * invalidations on its own: the services that change a bot's adapter
+ * ("bot-adapter:&lt;app name&gt;") or a FusionAuth user ("fusionauth-user:&lt;device ID&gt;")
+ * have to produce to the topic, or an operator invalidates an entry through the admin API.
+ * Without that, a change is only picked up when the entry expires.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationBus {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${orchestrator.cache.invalidation-topic:orchestrator-cache-invalidation}")
+    private String topic;
+
+    @Value("${orchestrator.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${orchestrator.replay.enabled:false}")
+    private boolean replayEnabled;
+
+    private final String instanceID = UUID.randomUUID().toString();
+
+    private KafkaSender<String, String> sender;
+    private Disposable subscription;
+    private BiConsumer<String, String> handler = (cacheName, key) -> { };
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        Map<String, Object> configuration = new HashMap<>();
+        configuration.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configuration.put(ProducerConfig.CLIENT_ID_CONFIG, "orchestrator-cache-invalidation");
+        configuration.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configuration.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        sender = KafkaSender.create(SenderOptions.<String, String>create(configuration));
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    void onInvalidation(BiConsumer<String, String> handler) {
+        this.handler = handler;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void subscribe() {
+        if (!enabled) {
+            return;
+        }
+        Map<String, Object> configuration = new HashMap<>();
+        configuration.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configuration.put(ConsumerConfig.CLIENT_ID_CONFIG, "orchestrator-cache-" + instanceID);
+        configuration.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configuration.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        List<TopicPartition> partitions = partitions(configuration);
+        if (partitions.isEmpty()) {
+            log.error("Cache invalidation topic {} has no partitions; not listening for invalidations", topic);
+            return;
+        }
+        // Records are never acknowledged, so the receiver never commits (there is no group to commit to)
+        ReceiverOptions<String, String> options = ReceiverOptions.<String, String>create(configuration)
+                .assignment(partitions)
+                .addAssignListener(assigned -> assigned.forEach(ReceiverPartition::seekToEnd));
+        subscription = KafkaReceiver.create(options).receive()
+                .subscribe(record -> receive(record.key(), record.value()),
+                        e -> log.error("Cache invalidation consumer stopped: " + e.getMessage()));
+    }
+
+    /**
+     * Hand an invalidation record to the handler, unless this instance published it (its own
+     * entry was evicted already).
+     */
+    void receive(String recordKey, String publisherID) {
+        if (instanceID.equals(publisherID) || recordKey == null) {
+            return;
+        }
+        int separator = recordKey.indexOf(':');
+        if (separator > 0) {
+            handler.accept(recordKey.substring(0, separator), recordKey.substring(separator + 1));
+        }
+    }
+
+    String getInstanceID() {
+        return instanceID;
+    }
+
+    private List<TopicPartition> partitions(Map<String, Object> configuration) {
+        try (KafkaConsumer<String, String> consumer = new KafkaConsumer<>(configuration)) {
+            List<PartitionInfo> infos = consumer.partitionsFor(topic);
+            if (infos == null) {
+                return Collections.emptyList();
+            }
+            return infos.stream().map(info -> new TopicPartition(info.topic(), info.partition())).collect(Collectors.toList());
+        } catch (Exception e) {
+            log.error("Error looking up cache invalidation partitions: " + e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    public Mono<Void> publish(String cacheName, String key) {
+        if (sender == null) {
+            return Mono.empty();
+        }
+        if (replayEnabled) {
+            // Replay mode: replayed traffic must not evict live instances' entries; the local eviction is enough
+            log.debug("Replay mode: not publishing invalidation of {}:{}", cacheName, key);
+            return Mono.empty();
+        }
+        return sender.send(Mono.just(SenderRecord.create(topic, null, null, cacheName + ":" + key, instanceID, key)))
+                .doOnNext(result -> {
+                    if (result.exception() != null) {
+                        log.error("Error publishing cache invalidation: " + result.exception().getMessage());
+                    }
+                })
+                .then();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        if (sender != null) {
+            sender.close();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.uci.orchestrator.Cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded in-heap LRU cache with a time to live per entry.
+ */
+public class HeapLocalCache implements LocalCache {
+
+    private static final class Entry {
+        private final String value;
+        private final long expiresAt;
+
+        private Entry(String value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private long ttlMs;
+    private int maxSize;
+    private final LinkedHashMap<String, Entry> entries;
+
+    public HeapLocalCache(int maxSize, long ttlMs) {
+        this.maxSize = maxSize;
+        this.ttlMs = ttlMs;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > HeapLocalCache.this.maxSize;
+            }
+        };
+    }
+
+    @Override
+    public synchronized String get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    @Override
+    public synchronized void put(String key, String value) {
+        entries.put(key, new Entry(value, System.currentTimeMillis() + ttlMs));
+    }
+
+    @Override
+    public synchronized void invalidate(String key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Change the bound; when shrinking, least recently used entries are evicted right away.
+     */
+    @Override
+    public synchronized void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        Iterator<String> eldest = entries.keySet().iterator();
+        while (entries.size() > maxSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    @Override
+    public synchronized long getTtlMs() {
+        return ttlMs;
+    }
+
+    /**
+     * Change the time to live of entries put from now on.
+     */
+    @Override
+    public synchronized void setTtlMs(long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Visit all live entries, least recently used first.
+     */
+    @Override
+    public synchronized void forEach(EntryVisitor visitor) {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            if (entry.getValue().expiresAt >= now) {
+                visitor.visit(entry.getKey(), entry.getValue().value, entry.getValue().expiresAt);
+            }
+        }
+    }
+
+    /**
+     * Re-insert an entry with its original expiry (e.g. from a snapshot); live entries win.
+     */
+    @Override
+    public synchronized void restore(String key, String value, long expiresAt) {
+        if (expiresAt >= System.currentTimeMillis() && !entries.containsKey(key)) {
+            entries.put(key, new Entry(value, expiresAt));
+        }
+    }
+}
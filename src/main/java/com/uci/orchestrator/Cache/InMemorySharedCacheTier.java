@@ -0,0 +1,46 @@
+package com.uci.orchestrator.Cache;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process stand-in for a shared cache tier, for tests and single instance setups.
+ */
+public class InMemorySharedCacheTier implements SharedCacheTier {
+
+    private static final class Entry {
+        private final String value;
+        private final long expiresAt;
+
+        private Entry(String value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<String> get(String cacheName, String key) {
+        return Mono.fromSupplier(() -> {
+            Entry entry = entries.get(cacheName + ":" + key);
+            if (entry == null || entry.expiresAt < System.currentTimeMillis()) {
+                return null;
+            }
+            return entry.value;
+        });
+    }
+
+    @Override
+    public Mono<Void> put(String cacheName, String key, String value, Duration ttl) {
+        return Mono.fromRunnable(() -> entries.put(cacheName + ":" + key, new Entry(value, System.currentTimeMillis() + ttl.toMillis())));
+    }
+
+    @Override
+    public Mono<Void> evict(String cacheName, String key) {
+        return Mono.fromRunnable(() -> entries.remove(cacheName + ":" + key));
+    }
+}
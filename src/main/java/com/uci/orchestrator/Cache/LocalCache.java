@@ -0,0 +1,48 @@
+package com.uci.orchestrator.Cache;
+
+/**
+ * Bounded local tier of a {@link TieredCache}, with a time to live per entry.
+ */
+public interface LocalCache {
+
+    interface EntryVisitor {
+        void visit(String key, String value, long expiresAt);
+    }
+
+    /**
+     * @return the live value, or null if absent or expired
+     */
+    String get(String key);
+
+    void put(String key, String value);
+
+    void invalidate(String key);
+
+    void clear();
+
+    int size();
+
+    int getMaxSize();
+
+    /**
+     * Change the bound; when shrinking, entries are evicted right away.
+     */
+    void setMaxSize(int maxSize);
+
+    long getTtlMs();
+
+    /**
+     * Change the time to live of entries put from now on.
+     */
+    void setTtlMs(long ttlMs);
+
+    /**
+     * Visit all live entries.
+     */
+    void forEach(EntryVisitor visitor);
+
+    /**
+     * Re-insert an entry with its original expiry (e.g. from a snapshot); live entries win.
+     */
+    void restore(String key, String value, long expiresAt);
+}
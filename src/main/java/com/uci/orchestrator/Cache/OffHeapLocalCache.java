@@ -0,0 +1,333 @@
+package com.uci.orchestrator.Cache;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Local cache tier kept in a direct buffer, for caches with millions of small entries (such
+ * as fusionauth-user) that would otherwise be millions of long-lived heap objects for the GC
+ * to trace and copy.
+ *
+ * Entries are fixed-width records (key and value of at most keyBytes / valueBytes UTF-8 bytes)
+ * indexed by open addressing with linear probing and backward-shift deletion, so lookups need
+ * no tombstones. The buffer is sized for maxSize entries at a 3/4 load factor when the cache
+ * is created, so the bound can be lowered but not raised past it. When full, a clock hand
+ * evicts the first entry that is expired or was not read or written since the hand last
+ * passed it (an approximation of LRU). Entries that do not fit their fields are not cached.
+ */
+public class OffHeapLocalCache implements LocalCache {
+
+    static final int MAX_FIELD_BYTES = 255;
+
+    private static final int STATE_OFFSET = 0;
+    private static final int REFERENCED_OFFSET = 1;
+    private static final int HASH_OFFSET = 4;
+    private static final int EXPIRES_AT_OFFSET = 8;
+    private static final int KEY_OFFSET = 16;
+
+    private static final byte EMPTY = 0;
+    private static final byte USED = 1;
+
+    private final int keyBytes;
+    private final int valueBytes;
+    private final int valueOffset;
+    private final int slotSize;
+    private final int capacity;
+    private final int maxEntries;
+    private final ByteBuffer buffer;
+
+    private int maxSize;
+    private volatile long ttlMs;
+    private int size;
+    private int clockHand;
+
+    public OffHeapLocalCache(int maxSize, long ttlMs, int keyBytes, int valueBytes) {
+        if (maxSize < 1 || keyBytes < 1 || keyBytes > MAX_FIELD_BYTES || valueBytes < 1 || valueBytes > MAX_FIELD_BYTES) {
+            throw new IllegalArgumentException("Invalid off-heap cache size " + maxSize + " or field widths " + keyBytes + "/" + valueBytes);
+        }
+        this.keyBytes = keyBytes;
+        this.valueBytes = valueBytes;
+        this.valueOffset = KEY_OFFSET + 1 + keyBytes;
+        // Rounded up to whole longs, so records can be moved a long at a time
+        this.slotSize = (valueOffset + 1 + valueBytes + Long.BYTES - 1) / Long.BYTES * Long.BYTES;
+        long slots = (long) maxSize * 4 / 3 + 1;
+        if (slots * slotSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many entries for a single buffer: " + maxSize);
+        }
+        this.capacity = (int) slots;
+        this.maxEntries = maxSize;
+        this.maxSize = maxSize;
+        this.ttlMs = ttlMs;
+        this.buffer = ByteBuffer.allocateDirect(capacity * slotSize);
+    }
+
+    /**
+     * @return the size of the direct buffer
+     */
+    public long bytes() {
+        return (long) capacity * slotSize;
+    }
+
+    @Override
+    public String get(String key) {
+        byte[] encodedKey = encode(key, keyBytes);
+        if (encodedKey == null) {
+            return null;
+        }
+        synchronized (this) {
+            int slot = find(encodedKey, hash(key));
+            if (slot < 0) {
+                return null;
+            }
+            int base = offset(slot);
+            if (buffer.getLong(base + EXPIRES_AT_OFFSET) < System.currentTimeMillis()) {
+                delete(slot);
+                return null;
+            }
+            buffer.put(base + REFERENCED_OFFSET, (byte) 1);
+            return read(base + valueOffset);
+        }
+    }
+
+    @Override
+    public void put(String key, String value) {
+        put(key, value, System.currentTimeMillis() + ttlMs, true);
+    }
+
+    @Override
+    public void invalidate(String key) {
+        byte[] encodedKey = encode(key, keyBytes);
+        if (encodedKey == null) {
+            return;
+        }
+        synchronized (this) {
+            int slot = find(encodedKey, hash(key));
+            if (slot >= 0) {
+                delete(slot);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        for (int slot = 0; slot < capacity; slot++) {
+            buffer.put(offset(slot) + STATE_OFFSET, EMPTY);
+        }
+        size = 0;
+        clockHand = 0;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Change the bound, up to the size the buffer was allocated for; when shrinking, entries
+     * are evicted right away.
+     */
+    @Override
+    public synchronized void setMaxSize(int maxSize) {
+        if (maxSize < 1 || maxSize > maxEntries) {
+            throw new IllegalArgumentException("Off-heap cache size must be between 1 and " + maxEntries);
+        }
+        this.maxSize = maxSize;
+        while (size > maxSize) {
+            evict();
+        }
+    }
+
+    @Override
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    @Override
+    public void setTtlMs(long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+
+    @Override
+    public synchronized void forEach(EntryVisitor visitor) {
+        long now = System.currentTimeMillis();
+        for (int slot = 0; slot < capacity; slot++) {
+            int base = offset(slot);
+            if (buffer.get(base + STATE_OFFSET) == USED && buffer.getLong(base + EXPIRES_AT_OFFSET) >= now) {
+                visitor.visit(read(base + KEY_OFFSET), read(base + valueOffset), buffer.getLong(base + EXPIRES_AT_OFFSET));
+            }
+        }
+    }
+
+    @Override
+    public void restore(String key, String value, long expiresAt) {
+        if (expiresAt >= System.currentTimeMillis()) {
+            put(key, value, expiresAt, false);
+        }
+    }
+
+    private void put(String key, String value, long expiresAt, boolean replace) {
+        byte[] encodedKey = encode(key, keyBytes);
+        byte[] encodedValue = encode(value, valueBytes);
+        if (encodedKey == null) {
+            return;
+        }
+        int hash = hash(key);
+        synchronized (this) {
+            int slot = find(encodedKey, hash);
+            if (encodedValue == null) {
+                // Too long to cache; drop an older value rather than serve it
+                if (slot >= 0) {
+                    delete(slot);
+                }
+                return;
+            }
+            if (slot >= 0 && !replace) {
+                return;
+            }
+            if (slot < 0) {
+                if (size >= maxSize) {
+                    evict();
+                    slot = find(encodedKey, hash);
+                }
+                slot = -slot - 1;
+                int base = offset(slot);
+                buffer.put(base + STATE_OFFSET, USED);
+                buffer.putInt(base + HASH_OFFSET, hash);
+                write(base + KEY_OFFSET, encodedKey);
+                size++;
+            }
+            int base = offset(slot);
+            buffer.put(base + REFERENCED_OFFSET, (byte) 1);
+            buffer.putLong(base + EXPIRES_AT_OFFSET, expiresAt);
+            write(base + valueOffset, encodedValue);
+        }
+    }
+
+    /**
+     * @return the slot holding the key, or (-insertion slot - 1) if absent
+     */
+    private int find(byte[] key, int hash) {
+        int slot = index(hash);
+        while (true) {
+            int base = offset(slot);
+            if (buffer.get(base + STATE_OFFSET) != USED) {
+                return -slot - 1;
+            }
+            if (buffer.getInt(base + HASH_OFFSET) == hash && keyEquals(base + KEY_OFFSET, key)) {
+                return slot;
+            }
+            slot = next(slot);
+        }
+    }
+
+    /**
+     * Clock (second chance) eviction of one entry; expired entries go first.
+     */
+    private void evict() {
+        long now = System.currentTimeMillis();
+        while (size > 0) {
+            int slot = clockHand;
+            clockHand = next(clockHand);
+            int base = offset(slot);
+            if (buffer.get(base + STATE_OFFSET) != USED) {
+                continue;
+            }
+            if (buffer.get(base + REFERENCED_OFFSET) != 0 && buffer.getLong(base + EXPIRES_AT_OFFSET) >= now) {
+                buffer.put(base + REFERENCED_OFFSET, (byte) 0);
+            } else {
+                delete(slot);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Remove an entry and shift later entries of the same probe run back into the hole.
+     */
+    private void delete(int slot) {
+        int hole = slot;
+        int next = next(hole);
+        while (buffer.get(offset(next) + STATE_OFFSET) == USED) {
+            int ideal = index(buffer.getInt(offset(next) + HASH_OFFSET));
+            if (distance(ideal, next) >= distance(hole, next)) {
+                copySlot(next, hole);
+                hole = next;
+            }
+            next = next(next);
+        }
+        buffer.put(offset(hole) + STATE_OFFSET, EMPTY);
+        size--;
+    }
+
+    private void copySlot(int from, int to) {
+        int source = offset(from);
+        int target = offset(to);
+        for (int i = 0; i < slotSize; i += Long.BYTES) {
+            buffer.putLong(target + i, buffer.getLong(source + i));
+        }
+    }
+
+    private boolean keyEquals(int position, byte[] key) {
+        if ((buffer.get(position) & 0xFF) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(position + 1 + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void write(int position, byte[] value) {
+        buffer.put(position, (byte) value.length);
+        for (int i = 0; i < value.length; i++) {
+            buffer.put(position + 1 + i, value[i]);
+        }
+    }
+
+    private String read(int position) {
+        byte[] value = new byte[buffer.get(position) & 0xFF];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = buffer.get(position + 1 + i);
+        }
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the UTF-8 bytes, or null if the value does not fit a field of the given width
+     */
+    private static byte[] encode(String value, int fieldBytes) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return bytes.length <= fieldBytes ? bytes : null;
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private int index(int hash) {
+        return (hash & Integer.MAX_VALUE) % capacity;
+    }
+
+    private int next(int slot) {
+        return slot + 1 == capacity ? 0 : slot + 1;
+    }
+
+    private int distance(int from, int to) {
+        return to >= from ? to - from : to + capacity - from;
+    }
+
+    private int offset(int slot) {
+        return slot * slotSize;
+    }
+}
@@ -0,0 +1,18 @@
+package com.uci.orchestrator.Cache;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Optional second cache tier shared by all orchestrator instances (e.g. Redis). Values are
+ * strings; the local tier sits in front of it.
+ */
+public interface SharedCacheTier {
+
+    Mono<String> get(String cacheName, String key);
+
+    Mono<Void> put(String cacheName, String key, String value, Duration ttl);
+
+    Mono<Void> evict(String cacheName, String key);
+}
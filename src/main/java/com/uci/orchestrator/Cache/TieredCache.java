@@ -0,0 +1,103 @@
+package com.uci.orchestrator.Cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache with a bounded local tier and an optional shared tier. Only non-empty
+ * values are cached; an empty load result is passed through.
+ */
+public class TieredCache {
+
+    @Getter
+    private final String name;
+    @Getter
+    private final LocalCache local;
+    private final SharedCacheTier shared;
+    @Getter
+    private volatile Duration ttl;
+
+    private final Counter localHits;
+    private final Counter sharedHits;
+    private final Counter misses;
+
+    public TieredCache(String name, int maxSize, Duration ttl, SharedCacheTier shared, MeterRegistry meterRegistry) {
+        this(name, new HeapLocalCache(maxSize, ttl.toMillis()), ttl, shared, meterRegistry);
+    }
+
+    public TieredCache(String name, LocalCache local, Duration ttl, SharedCacheTier shared, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.local = local;
+        this.shared = shared;
+        this.ttl = ttl;
+        this.localHits = Counter.builder("orchestrator.cache.hits").tag("cache", name).tag("tier", "local").register(meterRegistry);
+        this.sharedHits = Counter.builder("orchestrator.cache.hits").tag("cache", name).tag("tier", "shared").register(meterRegistry);
+        this.misses = Counter.builder("orchestrator.cache.misses").tag("cache", name).register(meterRegistry);
+        Gauge.builder("orchestrator.cache.size", local, LocalCache::size).tag("cache", name).register(meterRegistry);
+    }
+
+    /**
+     * Change the time to live of entries cached from now on, in both tiers.
+     */
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+        local.setTtlMs(ttl.toMillis());
+    }
+
+    public Mono<String> get(String key, Supplier<Mono<String>> loader) {
+        return Mono.defer(() -> {
+            String value = local.get(key);
+            if (value != null) {
+                localHits.increment();
+                return Mono.just(value);
+            }
+            Mono<String> load = Mono.defer(() -> {
+                misses.increment();
+                return loader.get().flatMap(loaded -> {
+                    if (loaded.isEmpty()) {
+                        return Mono.just(loaded);
+                    }
+                    local.put(key, loaded);
+                    return shared == null ? Mono.just(loaded) : shared.put(name, key, loaded, ttl).thenReturn(loaded);
+                });
+            });
+            if (shared == null) {
+                return load;
+            }
+            return shared.get(name, key)
+                    .doOnNext(sharedValue -> {
+                        sharedHits.increment();
+                        local.put(key, sharedValue);
+                    })
+                    .switchIfEmpty(load);
+        });
+    }
+
+    public void put(String key, String value) {
+        local.put(key, value);
+        if (shared != null) {
+            shared.put(name, key, value, ttl).subscribe();
+        }
+    }
+
+    /**
+     * Drop the entry from this instance's local tier only.
+     */
+    public void invalidateLocal(String key) {
+        local.invalidate(key);
+    }
+
+    /**
+     * Drop the entry from both tiers of this instance.
+     */
+    public Mono<Void> evict(String key) {
+        local.invalidate(key);
+        return shared == null ? Mono.empty() : shared.evict(name, key);
+    }
+}
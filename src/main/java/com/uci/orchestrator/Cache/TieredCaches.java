@@ -0,0 +1,95 @@
+package com.uci.orchestrator.Cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Named near-caches for remote lookups. Sizes and TTLs are read from
+ * orchestrator.cache.&lt;name&gt;.max-size / ttl-ms, falling back to orchestrator.cache.default.*
+ * With orchestrator.cache.&lt;name&gt;.off-heap the local tier is an {@link OffHeapLocalCache},
+ * whose entry widths are orchestrator.cache.&lt;name&gt;.key-bytes / value-bytes.
+ */
+@Component
+public class TieredCaches {
+
+    public static final String BOT_ADAPTER = "bot-adapter";
+    public static final String FUSIONAUTH_USER = "fusionauth-user";
+
+    private final Map<String, TieredCache> caches = new ConcurrentHashMap<>();
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectProvider<SharedCacheTier> sharedCacheTier;
+
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+
+    @Value("${orchestrator.cache.enabled:true}")
+    private boolean enabled;
+
+    @PostConstruct
+    public void init() {
+        invalidationBus.onInvalidation((cacheName, key) -> {
+            TieredCache cache = caches.get(cacheName);
+            if (cache != null) {
+                cache.invalidateLocal(key);
+            }
+        });
+    }
+
+    public TieredCache get(String name) {
+        return caches.computeIfAbsent(name, cacheName -> {
+            long defaultTtl = environment.getProperty("orchestrator.cache.default.ttl-ms", Long.class, 600000L);
+            int defaultSize = environment.getProperty("orchestrator.cache.default.max-size", Integer.class, 100000);
+            int maxSize = environment.getProperty("orchestrator.cache." + cacheName + ".max-size", Integer.class, defaultSize);
+            Duration ttl = Duration.ofMillis(environment.getProperty("orchestrator.cache." + cacheName + ".ttl-ms", Long.class, defaultTtl));
+            LocalCache local;
+            if (environment.getProperty("orchestrator.cache." + cacheName + ".off-heap", Boolean.class, false)) {
+                OffHeapLocalCache offHeap = new OffHeapLocalCache(maxSize, ttl.toMillis(),
+                        environment.getProperty("orchestrator.cache." + cacheName + ".key-bytes", Integer.class, 64),
+                        environment.getProperty("orchestrator.cache." + cacheName + ".value-bytes", Integer.class, 64));
+                Gauge.builder("orchestrator.cache.off-heap.bytes", offHeap, OffHeapLocalCache::bytes).tag("cache", cacheName).register(meterRegistry);
+                local = offHeap;
+            } else {
+                local = new HeapLocalCache(maxSize, ttl.toMillis());
+            }
+            return new TieredCache(cacheName, local, ttl, sharedCacheTier.getIfAvailable(), meterRegistry);
+        });
+    }
+
+    public Collection<TieredCache> all() {
+        return caches.values();
+    }
+
+    /**
+     * Read through the named cache, or straight to the loader when caching is disabled.
+     */
+    public Mono<String> get(String name, String key, Supplier<Mono<String>> loader) {
+        return enabled ? get(name).get(key, loader) : loader.get();
+    }
+
+    /**
+     * Evict an entry on this instance (both tiers) and tell every other instance to drop it.
+     */
+    public Mono<Void> invalidate(String name, String key) {
+        return get(name).evict(key).then(invalidationBus.publish(name, key));
+    }
+}
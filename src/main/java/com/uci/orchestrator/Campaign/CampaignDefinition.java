@@ -0,0 +1,31 @@
+package com.uci.orchestrator.Campaign;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+/**
+ * The parts of a campaign (bot) definition needed to start a broadcast, see
+ * {@link CampaignDefinitionReader}.
+ */
+@Data
+public class CampaignDefinition {
+
+    private String name;
+
+    /**
+     * Adapter of the first logic block
+     */
+    private Adapter adapter;
+
+    /**
+     * Name of the first user segment, the broadcast target
+     */
+    private String userSegment;
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Adapter {
+        private String channel;
+        private String provider;
+    }
+}
@@ -0,0 +1,48 @@
+package com.uci.orchestrator.Campaign;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+
+/**
+ * Reads a {@link CampaignDefinition} from the campaign service's response. CampaignService
+ * hands the response over as a tree already, so only the needed paths are visited
+ * (data.name, data.logic[0].adapter, data.userSegments[0].name) instead of searching the
+ * whole document; the adapter is bound with the shared mapper.
+ */
+public final class CampaignDefinitionReader {
+
+    /**
+     * Shared mapper for campaign JSON; thread safe once configured
+     */
+    public static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private CampaignDefinitionReader() {
+    }
+
+    /**
+     * Read from a campaign service response, {"data": {...campaign...}}
+     */
+    public static CampaignDefinition fromResponse(JsonNode response) throws IOException {
+        JsonNode data = response == null ? null : response.get("data");
+        if (data == null || !data.isObject()) {
+            throw new JsonMappingException(null, "Campaign response has no data");
+        }
+        JsonNode name = data.get("name");
+        JsonNode adapter = data.path("logic").path(0).get("adapter");
+        JsonNode userSegment = data.path("userSegments").path(0).get("name");
+        if (name == null || adapter == null || !adapter.isObject() || userSegment == null) {
+            throw new JsonMappingException(null, "Campaign is missing name, logic adapter or user segment");
+        }
+
+        CampaignDefinition campaign = new CampaignDefinition();
+        campaign.setName(name.asText());
+        campaign.setAdapter(MAPPER.treeToValue(adapter, CampaignDefinition.Adapter.class));
+        campaign.setUserSegment(userSegment.asText());
+        return campaign;
+    }
+}
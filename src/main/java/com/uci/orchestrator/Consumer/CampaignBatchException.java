@@ -0,0 +1,12 @@
+package com.uci.orchestrator.Consumer;
+
+/**
+ * Thrown out of the campaign batch listener when a campaign of the batch could not be pushed
+ * nor dead-lettered, so the container does not commit the batch and redelivers it.
+ */
+public class CampaignBatchException extends RuntimeException {
+
+    public CampaignBatchException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
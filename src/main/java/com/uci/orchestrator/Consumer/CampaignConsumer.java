@@ -2,24 +2,39 @@ package com.uci.orchestrator.Consumer;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.uci.orchestrator.Broadcast.BroadcastScheduler;
+import com.uci.orchestrator.Campaign.CampaignDefinition;
+import com.uci.orchestrator.Campaign.CampaignDefinitionReader;
+import com.uci.orchestrator.Dedup.MessageDeduplicator;
+import com.uci.orchestrator.Execution.PriorityLanes;
+import com.uci.orchestrator.Publisher.XMessagePublisher;
+import com.uci.orchestrator.Resilience.DependencyGuards;
+import com.uci.orchestrator.Resilience.DependencyUnavailableException;
 import com.uci.utils.CampaignService;
 import com.uci.utils.kafka.SimpleProducer;
 import lombok.extern.slf4j.Slf4j;
 import messagerosa.core.model.*;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.kafka.sender.SenderRecord;
+import reactor.util.retry.Retry;
 
 import javax.xml.bind.JAXBException;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Component
@@ -33,23 +48,133 @@ public class CampaignConsumer {
     @Autowired
     private CampaignService campaignService;
 
-    @KafkaListener(id = "${campaign}", topics = "${campaign}")
-    public void consumeMessage(String campaignID) throws Exception {
-        log.info("CampaignID {}", campaignID);
-        processMessage(campaignID)
-                .doOnError(s -> log.info(s.getMessage()))
-                .subscribe(new Consumer<XMessage>() {
-            @Override
-            public void accept(XMessage xMessage) {
-                log.info("Pushing to : " + TransformerRegistry.getName(xMessage.getTransformers().get(0).getId()));
-                try {
-                    kafkaProducer.send("com.odk.broadcast", xMessage.toXML());
-                } catch (JAXBException e) {
-                    e.printStackTrace();
-                }
+    @Autowired
+    private DependencyGuards dependencyGuards;
+
+    @Autowired
+    private XMessagePublisher xMessagePublisher;
+
+    @Autowired
+    private PriorityLanes priorityLanes;
+
+    @Value("${campaign.broadcast-topic:com.odk.broadcast}")
+    private String broadcastTopic;
+
+    @Lazy
+    @Autowired
+    private BroadcastScheduler broadcastScheduler;
+
+    @Value("${campaign.scheduler.enabled:false}")
+    private boolean schedulerEnabled;
+
+    @Value("${campaign.batch.fetch-concurrency:16}")
+    private int fetchConcurrency;
+
+    @Value("${campaign.batch.timeout-ms:60000}")
+    private long batchTimeoutMs;
+
+    @Value("${campaign.batch.fetch-retries:3}")
+    private int fetchRetries;
+
+    @Value("${campaign.batch.fetch-retry-backoff-ms:1000}")
+    private long fetchRetryBackoffMs;
+
+    @Value("${campaign.dead-letter-topic:${campaign}.DLT}")
+    private String deadLetterTopic;
+
+    @Autowired
+    private MessageDeduplicator deduplicator;
+
+    // Not started in replay mode, which must not consume (and commit) live campaign triggers
+    @KafkaListener(id = "${campaign}", topics = "${campaign}", containerFactory = "campaignBatchListenerFactory",
+            autoStartup = "#{!${orchestrator.replay.enabled:false}}",
+            properties = "max.poll.records=${campaign.batch.max-records:500}")
+    public void consumeMessages(List<ConsumerRecord<String, String>> triggers) {
+        // A redelivered batch skips the triggers an earlier delivery already pushed or dead-lettered
+        List<ConsumerRecord<String, String>> pending = new ArrayList<>();
+        for (ConsumerRecord<String, String> trigger : triggers) {
+            if (!deduplicator.isDuplicate(MessageDeduplicator.key(trigger))) {
+                pending.add(trigger);
+            }
+        }
+        log.info("CampaignIDs {}", pending.stream().map(ConsumerRecord::value).collect(Collectors.toList()));
+
+        if (schedulerEnabled) {
+            // Paced release through the broadcast scheduler, which persists the schedules to its
+            // (required) state file before the batch is committed
+            for (ConsumerRecord<String, String> trigger : pending) {
+                broadcastScheduler.schedule(trigger.value(), System.currentTimeMillis());
+                deduplicator.markProcessed(MessageDeduplicator.key(trigger));
+            }
+            return;
+        }
+
+        // Fetch each distinct campaign once, concurrently; repeated triggers reuse the result
+        Map<String, Mono<XMessage>> campaigns = new HashMap<>();
+        for (ConsumerRecord<String, String> trigger : pending) {
+            campaigns.computeIfAbsent(trigger.value(), this::fetchCampaign);
+        }
+
+        // A campaign that cannot be fetched (after bounded retries) or built is dead-lettered
+        // on its own; the rest of the batch is still published
+        Flux<SenderRecord<String, String, ConsumerRecord<String, String>>> records = Flux.fromIterable(pending)
+                .flatMapSequential(trigger -> campaigns.get(trigger.value())
+                        .flatMap(xMessage -> toBroadcastRecord(trigger, xMessage))
+                        .onErrorResume(e -> deadLetter(trigger, e).then(Mono.empty())), fetchConcurrency);
+
+        // Publish the whole batch in one pipelined send and wait for it, so offsets are committed per batch.
+        // Each trigger is recorded once pushed or dead-lettered. Only a trigger that could not even be
+        // dead-lettered (or the timeout) fails the batch, which is then redelivered without the recorded ones.
+        xMessagePublisher.publishBulk(records)
+                .concatMap(result -> {
+                    ConsumerRecord<String, String> trigger = result.correlationMetadata();
+                    if (result.exception() != null) {
+                        return deadLetter(trigger, result.exception());
+                    }
+                    deduplicator.markProcessed(MessageDeduplicator.key(trigger));
+                    return Mono.<Void>empty();
+                })
+                .then()
+                .block(Duration.ofMillis(batchTimeoutMs));
+    }
+
+    private Mono<XMessage> fetchCampaign(String campaignID) {
+        // Campaign lookups run in the bulk lane so they cannot starve interactive replies
+        return priorityLanes.run(PriorityLanes.Lane.BULK, () -> {
+            try {
+                return processMessage(campaignID);
+            } catch (Exception e) {
+                return Mono.<XMessage>error(e);
             }
-        });
+        }).retryWhen(Retry.backoff(fetchRetries, Duration.ofMillis(fetchRetryBackoffMs))
+                        .filter(e -> e instanceof DependencyUnavailableException))
+                .doOnError(e -> log.error("Error fetching campaign " + campaignID + ": " + e.getMessage()))
+                .cache();
+    }
 
+    /**
+     * Publish a trigger that could not be pushed to the dead letter topic, and record it as
+     * handled once that succeeded.
+     */
+    private Mono<Void> deadLetter(ConsumerRecord<String, String> trigger, Throwable cause) {
+        log.error("Dead-lettering campaign " + trigger.value() + ": " + cause.getMessage());
+        SenderRecord<String, String, ConsumerRecord<String, String>> record =
+                SenderRecord.create(deadLetterTopic, null, null, trigger.key(), trigger.value(), trigger);
+        return xMessagePublisher.publishBulk(Flux.just(record))
+                .next()
+                .flatMap(result -> result.exception() != null
+                        ? Mono.<Void>error(new CampaignBatchException("Failed to dead-letter campaign " + trigger.value(), result.exception()))
+                        : Mono.<Void>empty())
+                .doOnSuccess(done -> deduplicator.markProcessed(MessageDeduplicator.key(trigger)));
+    }
+
+    private Mono<SenderRecord<String, String, ConsumerRecord<String, String>>> toBroadcastRecord(ConsumerRecord<String, String> trigger, XMessage xMessage) {
+        log.info("Pushing to : " + TransformerRegistry.getName(xMessage.getTransformers().get(0).getId()));
+        try {
+            return Mono.just(xMessagePublisher.broadcastRecord(broadcastTopic, xMessage, trigger));
+        } catch (JAXBException e) {
+            return Mono.error(e);
+        }
     }
 
     /**
@@ -60,22 +185,24 @@ public class CampaignConsumer {
      */
     public Mono<XMessage> processMessage(String campaignID) throws Exception {
         // Get campaign ID and get campaign details {data: transformers [broadcast(SMS), <formID>(Whatsapp)]}
-        return campaignService
-                .getCampaignFromID(campaignID)
+        return dependencyGuards.get(DependencyGuards.CAMPAIGN_SERVICE)
+                .protect(campaignService.getCampaignFromID(campaignID))
                 .doOnError(s -> log.info(s.getMessage()))
-                .map(new Function<JsonNode, XMessage>() {
+                .flatMap(new Function<JsonNode, Mono<XMessage>>() {
                     @Override
-                    public XMessage apply(JsonNode jsonNode) {
-                        JsonNode campaignDetails = jsonNode.get("data");
-                        ObjectMapper mapper = new ObjectMapper();
-                        JsonNode adapter = campaignDetails.findValues("logic").get(0).get(0).get("adapter");
+                    public Mono<XMessage> apply(JsonNode jsonNode) {
+                        CampaignDefinition campaign;
+                        try {
+                            campaign = CampaignDefinitionReader.fromResponse(jsonNode);
+                        } catch (IOException e) {
+                            return Mono.error(e);
+                        }
 
                         // Create a new campaign xMessage
                         XMessagePayload payload = XMessagePayload.builder().text("").build();
 
-                        String userSegmentName = ((ArrayNode) campaignDetails.get("userSegments")).get(0).get("name").asText();
                         SenderReceiverInfo to = SenderReceiverInfo.builder()
-                                .userID(userSegmentName)
+                                .userID(campaign.getUserSegment())
                                 .build();
 
                         Transformer broadcast = Transformer.builder()
@@ -92,10 +219,10 @@ public class CampaignConsumer {
 
                         XMessage.MessageType messageType = XMessage.MessageType.BROADCAST_TEXT;
 
-                        return XMessage.builder()
-                                .app(campaignDetails.get("name").asText())
-                                .channelURI(adapter.get("channel").asText())
-                                .providerURI(adapter.get("provider").asText())
+                        return Mono.just(XMessage.builder()
+                                .app(campaign.getName())
+                                .channelURI(campaign.getAdapter().getChannel())
+                                .providerURI(campaign.getAdapter().getProvider())
                                 .payload(payload)
                                 .conversationStage(new ConversationStage(0, ConversationStage.State.STARTING))
                                 .timestamp(System.currentTimeMillis())
@@ -103,7 +230,7 @@ public class CampaignConsumer {
                                 .to(to)
                                 .messageType(messageType)
                                 .from(from)
-                                .build();
+                                .build());
                     }
                 }).doOnError(e -> {
                     log.error("Error in Campaign Consume::" + e.getMessage());
@@ -0,0 +1,140 @@
+package com.uci.orchestrator.Consumer;
+
+import com.uci.orchestrator.Publisher.TunableKafkaSender;
+import com.uci.orchestrator.Snapshot.StateSnapshotter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.kafka.sender.KafkaSender;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ordered shutdown of the inbound pipeline, run before any other lifecycle bean stops (so
+ * before the web server, listener containers and Kafka clients go away):
+ * stop fetching, drain in-flight records within a deadline, flush the producers, commit the
+ * acknowledged offsets, snapshot the caches and close the consumer.
+ *
+ * Records that were fetched but not started are never acknowledged, so the next owner of
+ * their partitions processes them exactly once instead of both instances sending replies.
+ *
+ * All steps share one deadline (orchestrator.shutdown.timeout-ms): each waits at most its own
+ * timeout and never past the deadline, and the drain leaves time for the flush and commit. The
+ * pod's termination grace period has to exceed the deadline plus the time the rest of the
+ * application takes to close.
+ */
+@Slf4j
+@Component
+public class GracefulShutdown implements SmartLifecycle {
+
+    @Autowired
+    private ReactiveConsumer reactiveConsumer;
+
+    @Autowired
+    private PartitionInFlightTracker inFlightTracker;
+
+    @Autowired
+    private ObjectProvider<KafkaSender<?, ?>> kafkaSenders;
+
+    @Autowired
+    private StateSnapshotter stateSnapshotter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${orchestrator.shutdown.timeout-ms:25000}")
+    private long shutdownTimeoutMs;
+
+    @Value("${orchestrator.shutdown.drain-timeout-ms:15000}")
+    private long drainTimeoutMs;
+
+    @Value("${orchestrator.shutdown.flush-timeout-ms:3000}")
+    private long flushTimeoutMs;
+
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        long startTime = System.nanoTime();
+        long deadline = startTime + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMs);
+        log.info("Shutting down: {} records in flight", inFlightTracker.totalInFlight());
+
+        step("stop fetching", () -> reactiveConsumer.stopFetching().block(budget(deadline, flushTimeoutMs, 0)));
+
+        boolean drained = false;
+        try {
+            // Leaves the time of the flush and commit steps
+            drained = inFlightTracker.awaitDrained(budget(deadline, drainTimeoutMs, 2 * flushTimeoutMs));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long drainNanos = System.nanoTime() - startTime;
+        int abandoned = reactiveConsumer.abandonedCount() + (drained ? 0 : inFlightTracker.totalInFlight());
+        Timer.builder("orchestrator.shutdown.drain").register(meterRegistry).record(drainNanos, TimeUnit.NANOSECONDS);
+        Counter.builder("orchestrator.shutdown.abandoned").register(meterRegistry).increment(abandoned);
+        log.info("Drained in {} ms ({}), {} records left for the next partition owner",
+                drainNanos / 1000000, drained ? "complete" : "deadline reached", abandoned);
+
+        // Tunable senders also flush the producers they replaced and have not closed yet
+        step("flush producers", () -> Flux.fromStream(kafkaSenders.orderedStream())
+                .flatMap(sender -> sender instanceof TunableKafkaSender
+                        ? ((TunableKafkaSender<?, ?>) sender).flush()
+                        : sender.doOnProducer(producer -> {
+                            producer.flush();
+                            return true;
+                        }).then())
+                .then()
+                .block(budget(deadline, flushTimeoutMs, flushTimeoutMs)));
+        step("commit offsets", () -> reactiveConsumer.commitAcknowledged().block(budget(deadline, flushTimeoutMs, 0)));
+        step("snapshot state", stateSnapshotter::shutdown);
+        reactiveConsumer.close();
+        log.info("Shutdown complete in {} ms", (System.nanoTime() - startTime) / 1000000);
+    }
+
+    /**
+     * @return the step's timeout, cut to what is left before the deadline once {@code reservedMs}
+     * are kept for later steps
+     */
+    private static Duration budget(long deadline, long timeoutMs, long reservedMs) {
+        long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()) - reservedMs;
+        return Duration.ofMillis(Math.max(0, Math.min(timeoutMs, remainingMs)));
+    }
+
+    private void step(String name, Runnable step) {
+        try {
+            step.run();
+        } catch (Exception e) {
+            log.error("Shutdown step '" + name + "' failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stop first, while everything the pipeline depends on is still up.
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,103 @@
+package com.uci.orchestrator.Consumer;
+
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps count of the inbound records currently being processed, per topic partition,
+ * so that a revoked partition can be drained before its ownership moves to another instance.
+ */
+@Component
+public class PartitionInFlightTracker {
+
+    private final Map<TopicPartition, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    private final Object drainMonitor = new Object();
+
+    public void begin(TopicPartition partition) {
+        inFlight.computeIfAbsent(partition, p -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public void end(TopicPartition partition) {
+        AtomicInteger count = inFlight.get(partition);
+        if (count != null && count.decrementAndGet() <= 0) {
+            synchronized (drainMonitor) {
+                drainMonitor.notifyAll();
+            }
+        }
+    }
+
+    public int inFlight(TopicPartition partition) {
+        AtomicInteger count = inFlight.get(partition);
+        return count == null ? 0 : count.get();
+    }
+
+    public int totalInFlight() {
+        int total = 0;
+        for (AtomicInteger count : inFlight.values()) {
+            total += count.get();
+        }
+        return total;
+    }
+
+    /**
+     * Block until none of the given partitions has a record in flight or the timeout elapses.
+     *
+     * @param partitions - Partitions to wait for
+     * @param timeout    - Maximum time to wait
+     * @return true if all partitions drained within the timeout
+     */
+    public boolean awaitDrained(Collection<TopicPartition> partitions, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (drainMonitor) {
+            while (inFlight(partitions) > 0) {
+                long remainingMs = (deadline - System.nanoTime()) / 1000000;
+                if (remainingMs <= 0) {
+                    return false;
+                }
+                drainMonitor.wait(remainingMs);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Block until no record is in flight on any partition or the timeout elapses.
+     *
+     * @param timeout - Maximum time to wait
+     * @return true if everything drained within the timeout
+     */
+    public boolean awaitDrained(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (drainMonitor) {
+            while (totalInFlight() > 0) {
+                long remainingMs = (deadline - System.nanoTime()) / 1000000;
+                if (remainingMs <= 0) {
+                    return false;
+                }
+                drainMonitor.wait(remainingMs);
+            }
+        }
+        return true;
+    }
+
+    public int inFlight(Collection<TopicPartition> partitions) {
+        int total = 0;
+        for (TopicPartition partition : partitions) {
+            total += inFlight(partition);
+        }
+        return total;
+    }
+
+    public void forget(Collection<TopicPartition> partitions) {
+        for (TopicPartition partition : partitions) {
+            inFlight.computeIfPresent(partition, (p, count) -> count.get() <= 0 ? null : count);
+        }
+    }
+}
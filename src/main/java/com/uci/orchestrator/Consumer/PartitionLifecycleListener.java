@@ -0,0 +1,21 @@
+package com.uci.orchestrator.Consumer;
+
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collection;
+
+/**
+ * Callback for components that keep per-partition state (e.g. user caches) and need to
+ * warm it up or release it when the consumer group rebalances.
+ *
+ * Callbacks run on the Kafka consumer thread and must not block; long running work
+ * should be subscribed to asynchronously.
+ */
+public interface PartitionLifecycleListener {
+
+    default void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+    }
+
+    default void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+    }
+}
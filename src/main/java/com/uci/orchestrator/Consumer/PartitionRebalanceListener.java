@@ -0,0 +1,94 @@
+package com.uci.orchestrator.Consumer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.kafka.receiver.ReceiverOffset;
+import reactor.kafka.receiver.ReceiverPartition;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Assign/revoke hooks for the inbound consumer group. On revoke, records still in flight
+ * for the revoked partitions are drained (bounded by a deadline) and the offsets acknowledged
+ * meanwhile are committed before another instance takes over; on assign, registered
+ * {@link PartitionLifecycleListener}s are told to warm up their per-partition state.
+ */
+@Slf4j
+@Component
+public class PartitionRebalanceListener {
+
+    @Autowired
+    private PartitionInFlightTracker inFlightTracker;
+
+    @Autowired
+    private ObjectProvider<PartitionLifecycleListener> lifecycleListeners;
+
+    @Autowired
+    private ObjectProvider<ReactiveConsumer> reactiveConsumer;
+
+    @Value("${orchestrator.consumer.revoke-drain-timeout-ms:10000}")
+    private long revokeDrainTimeoutMs;
+
+    public void onAssigned(Collection<ReceiverPartition> receiverPartitions) {
+        List<TopicPartition> partitions = toTopicPartitions(receiverPartitions);
+        log.info("Partitions assigned: {}", partitions);
+        lifecycleListeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onPartitionsAssigned(partitions);
+            } catch (Exception e) {
+                log.error("Partition assign listener failed: " + e.getMessage());
+            }
+        });
+    }
+
+    public void onRevoked(Collection<ReceiverPartition> receiverPartitions) {
+        List<TopicPartition> partitions = toTopicPartitions(receiverPartitions);
+        long startTime = System.nanoTime();
+        try {
+            if (!inFlightTracker.awaitDrained(partitions, Duration.ofMillis(revokeDrainTimeoutMs))) {
+                log.warn("Partitions revoked with {} records still in flight: {}", inFlightTracker.inFlight(partitions), partitions);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Partitions revoked: {}, drained in {} ms", partitions, (System.nanoTime() - startTime) / 1000000);
+        commitDrained(partitions);
+        inFlightTracker.forget(partitions);
+        lifecycleListeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onPartitionsRevoked(partitions);
+            } catch (Exception e) {
+                log.error("Partition revoke listener failed: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * The receiver commits acknowledged offsets before calling the revoke listeners, so records
+     * acknowledged while draining are committed here. This runs on the consumer's polling thread,
+     * which executes {@link ReceiverOffset#commit()} only once the callback returned, so the
+     * commit is not waited for. With the cooperative assignor the revoked partitions get their
+     * new owner in a follow-up rebalance, which that thread only joins after the commit.
+     */
+    private void commitDrained(List<TopicPartition> partitions) {
+        ReactiveConsumer acknowledged = reactiveConsumer.getIfAvailable();
+        if (acknowledged == null) {
+            return;
+        }
+        acknowledged.commitAcknowledged(partitions).subscribe(
+                null,
+                e -> log.error("Failed to commit drained offsets of revoked partitions " + partitions + ": " + e.getMessage()),
+                () -> log.info("Committed drained offsets of revoked partitions {}", partitions));
+    }
+
+    private List<TopicPartition> toTopicPartitions(Collection<ReceiverPartition> receiverPartitions) {
+        return receiverPartitions.stream().map(ReceiverPartition::topicPartition).collect(Collectors.toList());
+    }
+}
@@ -1,16 +1,25 @@
 package com.uci.orchestrator.Consumer;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.inversoft.error.Errors;
-import com.inversoft.rest.ClientResponse;
 import com.uci.dao.models.XMessageDAO;
 import com.uci.dao.repository.XMessageRepository;
+import com.uci.orchestrator.Cache.TieredCaches;
+import com.uci.orchestrator.Dedup.MessageDeduplicator;
+import com.uci.orchestrator.Dispatch.MessageTypeHandler;
+import com.uci.orchestrator.Dispatch.MessageTypeRegistry;
+import com.uci.orchestrator.Execution.BlockingExecution;
+import com.uci.orchestrator.Execution.PriorityLanes;
+import com.uci.orchestrator.History.LatestMessageSelector;
+import com.uci.orchestrator.History.XMessageHistoryLoader;
+import com.uci.orchestrator.Publisher.XMessagePublisher;
+import com.uci.orchestrator.Replay.TrafficCapture;
+import com.uci.orchestrator.Resilience.DependencyGuards;
+import com.uci.orchestrator.Resilience.DependencyUnavailableException;
 import com.uci.utils.BotService;
 import com.uci.utils.CampaignService;
 import com.uci.utils.encryption.AESWrapper;
 import com.uci.utils.kafka.ReactiveProducer;
 import com.uci.utils.kafka.SimpleProducer;
-import io.fusionauth.domain.api.UserResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import messagerosa.core.model.DeviceType;
@@ -18,6 +27,8 @@ import messagerosa.core.model.SenderReceiverInfo;
 import messagerosa.core.model.XMessage;
 import messagerosa.xml.XMessageParser;
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RetriableException;
 import org.apache.kafka.common.protocol.types.Field;
 import org.kie.api.runtime.KieSession;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,16 +36,31 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationStartedEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.DirectProcessor;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOffset;
 import reactor.kafka.receiver.ReceiverRecord;
+import reactor.util.context.Context;
+import reactor.util.retry.Retry;
 
 import javax.xml.bind.JAXBException;
 import java.io.ByteArrayInputStream;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -43,7 +69,7 @@ import static com.uci.utils.encryption.AESWrapper.encodeKey;
 @Component
 @RequiredArgsConstructor
 @Slf4j
-public class ReactiveConsumer {
+public class ReactiveConsumer implements PartitionLifecycleListener {
 
     private final Flux<ReceiverRecord<String, String>> reactiveKafkaReceiver;
 
@@ -65,6 +91,64 @@ public class ReactiveConsumer {
     @Autowired
     public BotService botService;
 
+    @Autowired
+    private PartitionInFlightTracker inFlightTracker;
+
+    @Autowired
+    private MessageDeduplicator deduplicator;
+
+    @Autowired
+    private DependencyGuards dependencyGuards;
+
+    @Autowired
+    private XMessageHistoryLoader historyLoader;
+
+    @Autowired
+    private BlockingExecution blockingExecution;
+
+    @Autowired
+    private PriorityLanes priorityLanes;
+
+    @Autowired
+    private MessageTypeRegistry messageTypeRegistry;
+
+    @Autowired
+    private XMessagePublisher xMessagePublisher;
+
+    @Autowired
+    private TieredCaches tieredCaches;
+
+    @Value("${orchestrator.consumer.max-in-flight-per-partition:16}")
+    private int maxInFlightPerPartition;
+
+    @Autowired
+    private TrafficCapture trafficCapture;
+
+    @Autowired
+    private KafkaReceiver<String, String> kafkaReceiver;
+
+    private volatile boolean stopping;
+    private volatile Disposable subscription;
+    private final AtomicInteger abandoned = new AtomicInteger();
+    private final Map<TopicPartition, ReceiverOffset> lastAcknowledged = new ConcurrentHashMap<>();
+    private final Set<TopicPartition> pausedPartitions = ConcurrentHashMap.newKeySet();
+    private volatile Disposable pauseEnforcer;
+    // Revoked partitions, completing their record groups
+    private final DirectProcessor<TopicPartition> revocations = DirectProcessor.create();
+    private final FluxSink<TopicPartition> revocationSink = revocations.sink();
+
+    @Value("${orchestrator.consumer.retry-min-backoff-ms:200}")
+    private long retryMinBackoffMs;
+
+    @Value("${orchestrator.consumer.retry-max-backoff-ms:30000}")
+    private long retryMaxBackoffMs;
+
+    @Value("${orchestrator.consumer.pause-reapply-interval-ms:1000}")
+    private long pauseReapplyIntervalMs;
+
+    @Value("${orchestrator.replay.enabled:false}")
+    private boolean replayEnabled;
+
     @Autowired
     public CampaignService campaignService;
 
@@ -78,62 +162,22 @@ public class ReactiveConsumer {
 
     @EventListener(ApplicationStartedEvent.class)
     public void onMessage() {
-        reactiveKafkaReceiver
-                .doOnNext(new Consumer<ReceiverRecord<String, String>>() {
-                    @Override
-                    public void accept(ReceiverRecord<String, String> stringMessage) {
-                        try {
-                            final long startTime = System.nanoTime();
-                            XMessage msg = XMessageParser.parse(new ByteArrayInputStream(stringMessage.value().getBytes()));
-                            SenderReceiverInfo from = msg.getFrom();
-                            getAppName(msg.getPayload().getText(), msg.getFrom())
-                                    .doOnNext(new Consumer<String>() {
-                                        @Override
-                                        public void accept(String appName) {
-                                            logTimeTaken(startTime, 2);
-                                            fetchAdapterID(appName)
-                                                    .doOnNext(new Consumer<String>() {
-                                                        @Override
-                                                        public void accept(String adapterID) {
-                                                            logTimeTaken(startTime, 3);
-                                                            from.setCampaignID(appName);
-                                                            from.setDeviceType(DeviceType.PHONE);
-                                                            resolveUser(from, appName)
-                                                                    .doOnNext(new Consumer<SenderReceiverInfo>() {
-                                                                        @Override
-                                                                        public void accept(SenderReceiverInfo from) {
-                                                                            msg.setFrom(from);
-                                                                            msg.setApp(appName);
-                                                                            getLastMessageID(msg)
-                                                                                    .doOnNext(lastMessageID -> {
-                                                                                        logTimeTaken(startTime, 4);
-                                                                                        msg.setLastMessageID(lastMessageID);
-                                                                                        msg.setAdapterId(adapterID);
-                                                                                        if (msg.getMessageState().equals(XMessage.MessageState.REPLIED) || msg.getMessageState().equals(XMessage.MessageState.OPTED_IN)) {
-                                                                                            try {
-                                                                                                kafkaProducer.send(odkTransformerTopic, msg.toXML());
-                                                                                                // reactiveProducer.sendMessages(odkTransformerTopic, msg.toXML());
-                                                                                            } catch (JAXBException e) {
-                                                                                                e.printStackTrace();
-                                                                                            }
-                                                                                            logTimeTaken(startTime, 15);
-                                                                                        }
-                                                                                    })
-                                                                                    .subscribe();
-                                                                        }
-                                                                    }).subscribe();
-
-                                                        }
-                                                    })
-                                                    .subscribe();
-                                        }
-                                    })
-                                    .subscribe();
-                        } catch (Exception e) {
-                            e.printStackTrace();
-                        }
-                    }
-                })
+        if (replayEnabled) {
+            log.info("Replay mode: not consuming inbound topics");
+            return;
+        }
+        subscription = reactiveKafkaReceiver
+                .groupBy(record -> record.receiverOffset().topicPartition())
+                // A partition's group completes when the partition is revoked (its records were drained by
+                // then), so groups are bounded by the assignment and every group is subscribed
+                .flatMap(partitionRecords -> partitionRecords
+                        .takeUntilOther(revocations.filter(partitionRecords.key()::equals).next())
+                        // Records of a partition are processed concurrently but acknowledged in offset order
+                        .flatMapSequential(record -> processRecord(record).thenReturn(record), maxInFlightPerPartition)
+                        .doOnNext(record -> {
+                            record.receiverOffset().acknowledge();
+                            lastAcknowledged.put(record.receiverOffset().topicPartition(), record.receiverOffset());
+                        }), Integer.MAX_VALUE)
                 .doOnError(new Consumer<Throwable>() {
                     @Override
                     public void accept(Throwable e) {
@@ -142,34 +186,284 @@ public class ReactiveConsumer {
                     }
                 })
                 .subscribe();
+        pauseEnforcer = Flux.interval(Duration.ofMillis(pauseReapplyIntervalMs))
+                .concatMap(tick -> applyPauses().onErrorResume(e -> Mono.empty()))
+                .subscribe();
     }
 
-    private Mono<SenderReceiverInfo> resolveUser(SenderReceiverInfo from, String appName) {
+    /**
+     * Run a single inbound record through the pipeline. The returned Mono completes once the
+     * message has been published (or dropped for a non-transient error) and never errors, so
+     * the record can be acknowledged. While a dependency is unavailable the record is retried
+     * with backoff and not acknowledged, which holds back its partition.
+     */
+    private Mono<Void> processRecord(ReceiverRecord<String, String> record) {
+        if (stopping) {
+            return abandon();
+        }
+        TopicPartition partition = record.receiverOffset().topicPartition();
+        String dedupKey = MessageDeduplicator.key(record);
+        if (deduplicator.isDuplicate(dedupKey)) {
+            return Mono.empty();
+        }
+        if (trafficCapture.isEnabled()) {
+            trafficCapture.captureInbound(dedupKey, record.topic(), record.key(), record.value(), System.currentTimeMillis());
+        }
+        // Inbound messages are interactive: they get the lane's reserved capacity ahead of broadcasts
+        return priorityLanes.run(PriorityLanes.Lane.INTERACTIVE, () -> {
+            if (stopping) {
+                // Abandoned below, once the lane permit is released
+                return Mono.<Void>error(new ShutdownInProgressException());
+            }
+            inFlightTracker.begin(partition);
+            try {
+                return processMessage(record.value()).doFinally(signalType -> inFlightTracker.end(partition));
+            } catch (Exception e) {
+                inFlightTracker.end(partition);
+                return Mono.<Void>error(e);
+            }
+        }).doOnSuccess(done -> deduplicator.markProcessed(dedupKey))
+                .subscriberContext(Context.of(TrafficCapture.SOURCE, dedupKey))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofMillis(retryMinBackoffMs))
+                        .maxBackoff(Duration.ofMillis(retryMaxBackoffMs))
+                        .filter(e -> isTransient(e) && !stopping)
+                        .doBeforeRetry(signal -> log.warn("Retrying inbound message at " + record.receiverOffset().offset() + ": " + signal.failure().getMessage())))
+                .onErrorResume(e -> {
+                    if (isTransient(e) || e instanceof ShutdownInProgressException) {
+                        // Shutting down: leave the record unacknowledged for the next owner
+                        return abandon();
+                    }
+                    log.error("Error processing inbound message at " + record.receiverOffset().offset() + ": " + e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * @return true for errors that say nothing about the message itself, only that a
+     * dependency could not take it right now. Guarded calls map their timeouts and transient
+     * failures to {@link DependencyUnavailableException}; publishing is not guarded, so a
+     * retriable Kafka error counts too.
+     */
+    private boolean isTransient(Throwable e) {
+        return e instanceof DependencyUnavailableException
+                || Exceptions.unwrap(e) instanceof RetriableException;
+    }
+
+    /**
+     * A record that arrives (or gets its lane permit) after shutdown started is never started
+     * and never completes, so neither it nor any later record of its partition is acknowledged;
+     * the next owner of the partition processes them. Never called while holding a lane permit.
+     */
+    private Mono<Void> abandon() {
+        abandoned.incrementAndGet();
+        return Mono.never();
+    }
+
+    /**
+     * First step of a graceful shutdown: stop starting new records and pause fetching. The
+     * pause covers every assigned partition and is re-applied with the administrative pauses
+     * until the consumer is closed.
+     */
+    public Mono<Void> stopFetching() {
+        stopping = true;
+        return applyPauses();
+    }
+
+    /**
+     * Stop fetching from a partition until {@link #resume(TopicPartition)}. Records already
+     * fetched are still processed.
+     */
+    public Mono<Void> pause(TopicPartition partition) {
+        pausedPartitions.add(partition);
+        return applyPauses();
+    }
+
+    public Mono<Void> resume(TopicPartition partition) {
+        pausedPartitions.remove(partition);
+        if (subscription == null) {
+            return Mono.empty();
+        }
+        return kafkaReceiver.doOnConsumer(consumer -> {
+            if (consumer.assignment().contains(partition)) {
+                consumer.resume(Collections.singleton(partition));
+            }
+            return partition;
+        }).then();
+    }
+
+    public Set<TopicPartition> pausedPartitions() {
+        return new HashSet<>(pausedPartitions);
+    }
+
+    /**
+     * (Re)apply administrative pauses, or pause every assigned partition once shutdown
+     * started. The receiver resumes every assigned partition after it paused them for
+     * back-pressure, so pauses are re-applied periodically.
+     */
+    private Mono<Void> applyPauses() {
+        boolean stopped = stopping;
+        if ((!stopped && pausedPartitions.isEmpty()) || subscription == null) {
+            return Mono.empty();
+        }
+        return kafkaReceiver.doOnConsumer(consumer -> {
+            Set<TopicPartition> partitions = new HashSet<>(stopped ? consumer.assignment() : pausedPartitions);
+            partitions.retainAll(consumer.assignment());
+            consumer.pause(partitions);
+            return partitions;
+        }).then();
+    }
+
+    /**
+     * Commit the offsets acknowledged so far, without waiting for the next commit interval.
+     */
+    public Mono<Void> commitAcknowledged() {
+        return Flux.fromIterable(lastAcknowledged.values())
+                .flatMap(ReceiverOffset::commit)
+                .then();
+    }
+
+    /**
+     * Cancel the inbound subscription, which closes the Kafka consumer.
+     */
+    public void close() {
+        if (pauseEnforcer != null) {
+            pauseEnforcer.dispose();
+        }
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * @return Records not started because shutdown was in progress
+     */
+    public int abandonedCount() {
+        return abandoned.get();
+    }
+
+    /**
+     * Commit the offsets acknowledged so far for the given partitions.
+     */
+    public Mono<Void> commitAcknowledged(Collection<TopicPartition> partitions) {
+        List<ReceiverOffset> offsets = new ArrayList<>(partitions.size());
+        for (TopicPartition partition : partitions) {
+            ReceiverOffset offset = lastAcknowledged.get(partition);
+            if (offset != null) {
+                offsets.add(offset);
+            }
+        }
+        return Flux.fromIterable(offsets)
+                .flatMap(ReceiverOffset::commit)
+                .then();
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        lastAcknowledged.keySet().removeAll(partitions);
+        partitions.forEach(revocationSink::next);
+    }
+
+    /**
+     * Run a captured inbound record through the pipeline (replay mode); bypasses deduplication
+     * and priority lanes so the replay measures the pipeline itself.
+     *
+     * @param source - topic-partition@offset the record was captured from
+     * @param value  - Record value
+     */
+    public Mono<Void> replay(String source, String value) {
+        return Mono.defer(() -> {
+            try {
+                return processMessage(value);
+            } catch (Exception e) {
+                return Mono.<Void>error(e);
+            }
+        }).subscriberContext(Context.of(TrafficCapture.SOURCE, source));
+    }
+
+    private Mono<Void> processMessage(String value) throws Exception {
+        final long startTime = System.nanoTime();
+        XMessage msg = XMessageParser.parse(new ByteArrayInputStream(value.getBytes()));
+        SenderReceiverInfo from = msg.getFrom();
+        MessageTypeHandler handler = messageTypeRegistry.handler(msg.getMessageType());
+        return getAppName(msg.getPayload().getText(), msg.getFrom())
+                .flatMap(appName -> {
+                    logTimeTaken(startTime, 2);
+                    return fetchAdapterID(appName)
+                            .flatMap(adapterID -> {
+                                logTimeTaken(startTime, 3);
+                                from.setCampaignID(appName);
+                                from.setDeviceType(DeviceType.PHONE);
+                                String deviceID;
+                                try {
+                                    deviceID = deviceID(from);
+                                } catch (Exception e) {
+                                    return Mono.<Void>error(e);
+                                }
+                                return resolveUser(from, appName, deviceID)
+                                        .flatMap(resolvedFrom -> {
+                                            msg.setFrom(resolvedFrom);
+                                            msg.setApp(appName);
+                                            return handler.resolve(msg, userID -> getLatestXMessage(userID, yesterday, XMessage.MessageState.SENT.name()))
+                                                    .flatMap(route -> {
+                                                        logTimeTaken(startTime, 4);
+                                                        msg.setAdapterId(adapterID);
+                                                        switch (route) {
+                                                            case TRANSFORMER:
+                                                                // Keyed by the sender's device ID: unlike userID it does not change when the
+                                                                // user registers, so a user's conversation stays on one partition downstream
+                                                                return xMessagePublisher.publish(odkTransformerTopic, msg, deviceID)
+                                                                        .doOnSuccess(done -> logTimeTaken(startTime, 15));
+                                                            default:
+                                                                return Mono.<Void>empty();
+                                                        }
+                                                    });
+                                        });
+                            });
+                })
+                .then();
+    }
+
+    /**
+     * @return The sender's encrypted device string; this is the userID of a registered user
+     */
+    private String deviceID(SenderReceiverInfo from) throws Exception {
+        String deviceString = from.getDeviceType().toString() + ":" + from.getUserID();
+        return AESWrapper.encrypt(deviceString, encodeKey(secret));
+    }
+
+    private Mono<SenderReceiverInfo> resolveUser(SenderReceiverInfo from, String appName, String deviceID) {
         try {
             String deviceString = from.getDeviceType().toString() + ":" + from.getUserID();
-            String encodedBase64Key = encodeKey(secret);
-            String deviceID = AESWrapper.encrypt(deviceString, encodedBase64Key);
-            ClientResponse<UserResponse, Errors> response = campaignService.fusionAuthClient.retrieveUserByUsername(deviceID);
-            if (response.wasSuccessful()) {
-                from.setUserID(deviceID);
-                return Mono.just(from);
-            } else {
-                return botService.updateUser(deviceString, appName)
-                        .flatMap(new Function<Pair<Boolean, String>, Mono<SenderReceiverInfo>>() {
-                            @Override
-                            public Mono<SenderReceiverInfo> apply(Pair<Boolean, String> result) {
-                                if (result.getLeft()) {
-                                    from.setDeviceID(result.getRight());
-                                    return Mono.just(from);
-                                } else {
-                                    return Mono.just(null);
-                                }
+            // Only registered users are cached (value is the device ID); "" means not registered
+            return tieredCaches.get(TieredCaches.FUSIONAUTH_USER, deviceID, () -> dependencyGuards.get(DependencyGuards.FUSIONAUTH)
+                    .protect(blockingExecution.fromCallable(() -> campaignService.fusionAuthClient.retrieveUserByUsername(deviceID)))
+                    .map(response -> response.wasSuccessful() ? deviceID : ""))
+                    .flatMap(new Function<String, Mono<SenderReceiverInfo>>() {
+                        @Override
+                        public Mono<SenderReceiverInfo> apply(String registeredDeviceID) {
+                            if (!registeredDeviceID.isEmpty()) {
+                                from.setUserID(deviceID);
+                                return Mono.just(from);
                             }
-                        });
-            }
+                            return dependencyGuards.get(DependencyGuards.BOT_SERVICE)
+                                    .protect(botService.updateUser(deviceString, appName))
+                                    .flatMap(new Function<Pair<Boolean, String>, Mono<SenderReceiverInfo>>() {
+                                        @Override
+                                        public Mono<SenderReceiverInfo> apply(Pair<Boolean, String> result) {
+                                            if (result.getLeft()) {
+                                                // Unregistered users are not cached, so there is nothing to invalidate
+                                                from.setDeviceID(result.getRight());
+                                                return Mono.just(from);
+                                            } else {
+                                                return Mono.empty();
+                                            }
+                                        }
+                                    });
+                        }
+                    });
         } catch (Exception e) {
             e.printStackTrace();
-            return Mono.just(null);
+            return Mono.empty();
         }
     }
 
@@ -179,65 +473,14 @@ public class ReactiveConsumer {
         log.info(String.format("CP-%d: %d ms", checkpointID, duration));
     }
 
-    private Mono<String> getLastMessageID(XMessage msg) {
-        if (msg.getMessageType().toString().equalsIgnoreCase("text")) {
-            return getLatestXMessage(msg.getFrom().getUserID(), yesterday, "SENT").map(new Function<XMessageDAO, String>() {
-                @Override
-                public String apply(XMessageDAO msg1) {
-                    if (msg1.getId() == null) {
-                        System.out.println("cError");
-                        return "";
-                    }
-                    return String.valueOf(msg1.getId());
-                }
-            });
-
-        } else if (msg.getMessageType().toString().equalsIgnoreCase("button")) {
-            return getLatestXMessage(msg.getFrom().getUserID(), yesterday, "SENT").map(new Function<XMessageDAO, String>() {
-                @Override
-                public String apply(XMessageDAO lastMessage) {
-                    return String.valueOf(lastMessage.getId());
-                }
-            });
-//
-//            map(new Function<XMessageDAO, String>() {
-//                @Override
-//                public String apply(XMessageDAO lastMessage) {
-//                    return String.valueOf(lastMessage.getId());
-//                }
-//            });
-        }
-        return Mono.empty();
-    }
-
     private Mono<XMessageDAO> getLatestXMessage(String userID, LocalDateTime yesterday, String messageState) {
-        return xMessageRepository.findAllByUserIdAndTimestampAfter(userID, yesterday).collectList().map(new Function<List<XMessageDAO>, XMessageDAO>() {
-            @Override
-            public XMessageDAO apply(List<XMessageDAO> xMessageDAOS) {
-                if (xMessageDAOS.size() > 0) {
-                    List<XMessageDAO> filteredList = new ArrayList<>();
-                    for (XMessageDAO xMessageDAO : xMessageDAOS) {
-                        if (xMessageDAO.getMessageState().equals(XMessage.MessageState.SENT.name()) ||
-                                xMessageDAO.getMessageState().equals(XMessage.MessageState.REPLIED.name()) )
-                            filteredList.add(xMessageDAO);
-                    }
-                    if (filteredList.size() > 0) {
-                        filteredList.sort(new Comparator<XMessageDAO>() {
-                            @Override
-                            public int compare(XMessageDAO o1, XMessageDAO o2) {
-                                return o1.getTimestamp().compareTo(o2.getTimestamp());
-                            }
-                        });
-                    }
-                    return xMessageDAOS.get(0);
-                }
-                return new XMessageDAO();
-            }
-        });
+        return historyLoader.latest(userID, yesterday, LatestMessageSelector.SENT_OR_REPLIED)
+                .defaultIfEmpty(new XMessageDAO());
     }
 
     private Mono<String> fetchAdapterID(String appName) {
-        return botService.getCurrentAdapter(appName);
+        return tieredCaches.get(TieredCaches.BOT_ADAPTER, appName,
+                () -> dependencyGuards.get(DependencyGuards.BOT_SERVICE).protect(botService.getCurrentAdapter(appName)));
     }
 
     private Mono<String> getAppName(String text, SenderReceiverInfo from) {
@@ -260,7 +503,8 @@ public class ReactiveConsumer {
             }
         } else {
             try {
-                return botService.getCampaignFromStartingMessage(text)
+                return dependencyGuards.get(DependencyGuards.BOT_SERVICE)
+                        .protect(botService.getCampaignFromStartingMessage(text))
                         .flatMap(new Function<String, Mono<? extends String>>() {
                             @Override
                             public Mono<String> apply(String appName1) {
@@ -0,0 +1,12 @@
+package com.uci.orchestrator.Consumer;
+
+/**
+ * Fails an inbound record that got its lane permit after shutdown started, so the permit is
+ * released before the record is abandoned.
+ */
+public class ShutdownInProgressException extends RuntimeException {
+
+    public ShutdownInProgressException() {
+        super("Shutdown in progress", null, false, false);
+    }
+}
@@ -0,0 +1,46 @@
+package com.uci.orchestrator.Controllers;
+
+import com.uci.orchestrator.Admin.AdminAuthorization;
+import com.uci.orchestrator.Broadcast.BroadcastSchedule;
+import com.uci.orchestrator.Broadcast.BroadcastScheduler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Broadcast scheduling; requests must carry orchestrator.admin.token in the admin-token header.
+ */
+@RestController
+@RequestMapping(value = "/campaign")
+public class BroadcastController {
+
+    @Autowired
+    private BroadcastScheduler broadcastScheduler;
+
+    @Autowired
+    private AdminAuthorization adminAuthorization;
+
+    /**
+     * Schedule a campaign broadcast at a start time (epoch millis; defaults to now). The campaign
+     * must exist; 503 if the campaign service cannot be reached to check.
+     */
+    @PostMapping("/schedule")
+    public Mono<ResponseEntity<BroadcastSchedule>> schedule(@RequestHeader(value = "admin-token", required = false) String token,
+                                                            @RequestParam(value = "campaignId") String campaignID,
+                                                            @RequestParam(value = "startTime", required = false) Long startTime) {
+        if (!adminAuthorization.isAuthorized(token)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+        }
+        return broadcastScheduler.campaignExists(campaignID)
+                .map(exists -> exists
+                        ? ResponseEntity.ok(broadcastScheduler.schedule(campaignID, startTime == null ? System.currentTimeMillis() : startTime))
+                        : ResponseEntity.badRequest().<BroadcastSchedule>build())
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build()));
+    }
+}
@@ -3,20 +3,21 @@ package com.uci.orchestrator.Controllers;
 
 import com.uci.dao.models.XMessageDAO;
 import com.uci.dao.repository.XMessageRepository;
+import com.uci.orchestrator.History.LatestMessageSelector;
 import lombok.SneakyThrows;
 import lombok.extern.java.Log;
+import messagerosa.core.model.XMessage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.net.URLDecoder;
 import java.time.LocalDateTime;
-import java.util.Comparator;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.function.Consumer;
-import java.util.function.Predicate;
+import java.util.function.Function;
 
 @Log
 @RestController
@@ -39,21 +40,17 @@ public class MessageRosa {
     public void deleteLastMessage(@RequestParam(value = "userID", required = false) String userID,
                                 @RequestParam(value = "messageType", required = false) String messageType) {
 
-        xmsgRepo.findAllByUserIdAndTimestampAfter(userID, LocalDateTime.now().minusDays(1)).filter(new Predicate<XMessageDAO>() {
+        XMessage.MessageState state = LatestMessageSelector.state(messageType);
+        if (state == null) {
+            return;
+        }
+        LatestMessageSelector.of(state)
+                .select(xmsgRepo.findAllByUserIdAndTimestampAfter(userID, LocalDateTime.now().minusDays(1)))
+                .flatMap(new Function<XMessageDAO, Mono<Void>>() {
                     @Override
-                    public boolean test(XMessageDAO xMessageDAO) {
-                        return xMessageDAO.getMessageState().equals(messageType);
+                    public Mono<Void> apply(XMessageDAO xMessageDAO) {
+                        return xmsgRepo.delete(xMessageDAO);
                     }
-                }).sort(new Comparator<XMessageDAO>() {
-                    @Override
-                    public int compare(XMessageDAO o1, XMessageDAO o2) {
-                        return o1.getTimestamp().compareTo(o2.getTimestamp());
-                    }
-                }).next().subscribe(new Consumer<XMessageDAO>() {
-            @Override
-            public void accept(XMessageDAO xMessageDAO) {
-                xmsgRepo.delete(xMessageDAO);
-            }
-        });
+                }).subscribe();
     }
 }
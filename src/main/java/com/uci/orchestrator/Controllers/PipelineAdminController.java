@@ -0,0 +1,106 @@
+package com.uci.orchestrator.Controllers;
+
+import com.uci.orchestrator.Admin.AdminAuthorization;
+import com.uci.orchestrator.Admin.PipelineSettings;
+import com.uci.orchestrator.Admin.PipelineTuning;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Runtime tuning of the pipeline; requests must carry orchestrator.admin.token in the
+ * admin-token header.
+ */
+@RestController
+@RequestMapping(value = "/admin/pipeline")
+public class PipelineAdminController {
+
+    @Autowired
+    private PipelineTuning pipelineTuning;
+
+    @Autowired
+    private AdminAuthorization adminAuthorization;
+
+    @GetMapping
+    public ResponseEntity<PipelineSettings> settings(@RequestHeader(value = "admin-token", required = false) String token) {
+        if (!adminAuthorization.isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(pipelineTuning.settings());
+    }
+
+    /**
+     * Lane permits: total caps the messages in flight, of which interactiveReserved are kept for replies
+     */
+    @PutMapping("/lanes")
+    public ResponseEntity<PipelineSettings> lanes(@RequestHeader(value = "admin-token", required = false) String token,
+                                                  @RequestParam(value = "totalPermits", required = false) Integer totalPermits,
+                                                  @RequestParam(value = "interactiveReserved", required = false) Integer interactiveReserved) {
+        return apply(token, () -> pipelineTuning.setLanes(totalPermits, interactiveReserved));
+    }
+
+    /**
+     * Producer (interactive or bulk) linger and batch size
+     */
+    @PutMapping("/producers/{name}")
+    public ResponseEntity<PipelineSettings> producer(@RequestHeader(value = "admin-token", required = false) String token,
+                                                     @PathVariable("name") String name,
+                                                     @RequestParam(value = "lingerMs", required = false) Integer lingerMs,
+                                                     @RequestParam(value = "batchSize", required = false) Integer batchSize) {
+        return apply(token, () -> pipelineTuning.setProducer(name, lingerMs, batchSize));
+    }
+
+    @PutMapping("/caches/{name}")
+    public ResponseEntity<PipelineSettings> cache(@RequestHeader(value = "admin-token", required = false) String token,
+                                                  @PathVariable("name") String name,
+                                                  @RequestParam(value = "maxSize", required = false) Integer maxSize,
+                                                  @RequestParam(value = "ttlMs", required = false) Long ttlMs) {
+        return apply(token, () -> pipelineTuning.setCache(name, maxSize, ttlMs));
+    }
+
+    /**
+     * Invalidate a cache entry on every instance, after the bot or user it holds was changed
+     */
+    @DeleteMapping("/caches/{name}")
+    public ResponseEntity<PipelineSettings> invalidate(@RequestHeader(value = "admin-token", required = false) String token,
+                                                       @PathVariable("name") String name,
+                                                       @RequestParam("key") String key) {
+        return apply(token, () -> pipelineTuning.invalidateCache(name, key));
+    }
+
+    @PostMapping("/partitions/{topic}/{partition}/pause")
+    public ResponseEntity<PipelineSettings> pause(@RequestHeader(value = "admin-token", required = false) String token,
+                                                  @PathVariable("topic") String topic,
+                                                  @PathVariable("partition") int partition) {
+        return apply(token, () -> pipelineTuning.pause(new TopicPartition(topic, partition)));
+    }
+
+    @PostMapping("/partitions/{topic}/{partition}/resume")
+    public ResponseEntity<PipelineSettings> resume(@RequestHeader(value = "admin-token", required = false) String token,
+                                                   @PathVariable("topic") String topic,
+                                                   @PathVariable("partition") int partition) {
+        return apply(token, () -> pipelineTuning.resume(new TopicPartition(topic, partition)));
+    }
+
+    private ResponseEntity<PipelineSettings> apply(String token, Runnable change) {
+        if (!adminAuthorization.isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            change.run();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(pipelineTuning.settings());
+    }
+}
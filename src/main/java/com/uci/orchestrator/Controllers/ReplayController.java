@@ -0,0 +1,50 @@
+package com.uci.orchestrator.Controllers;
+
+import com.uci.orchestrator.Admin.AdminAuthorization;
+import com.uci.orchestrator.Replay.ReplayReport;
+import com.uci.orchestrator.Replay.TrafficReplayer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(value = "/replay")
+public class ReplayController {
+
+    @Autowired
+    private TrafficReplayer trafficReplayer;
+
+    @Autowired
+    private AdminAuthorization adminAuthorization;
+
+    /**
+     * Start replaying the configured capture (speed 1 = captured pace, N = N times faster, 0 = max)
+     */
+    @PostMapping("/start")
+    public ResponseEntity<String> start(@RequestHeader(value = "admin-token", required = false) String token,
+                                        @RequestParam(value = "speed", defaultValue = "1") double speed) {
+        if (!adminAuthorization.isAuthorized(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!trafficReplayer.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Replay mode is not enabled");
+        }
+        return trafficReplayer.start(speed) ? ResponseEntity.accepted().body("Replay started")
+                : ResponseEntity.status(HttpStatus.CONFLICT).body("Replay already running");
+    }
+
+    /**
+     * Report of the last completed replay
+     */
+    @GetMapping("/report")
+    public ResponseEntity<ReplayReport> report() {
+        ReplayReport report = trafficReplayer.lastReport();
+        return report == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(report);
+    }
+}
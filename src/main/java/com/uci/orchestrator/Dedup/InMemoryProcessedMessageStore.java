@@ -0,0 +1,239 @@
+package com.uci.orchestrator.Dedup;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded, time-windowed processed message store. Entries older than the window or beyond
+ * the maximum size are evicted oldest first.
+ *
+ * If a persistence file is given, keys are reloaded from it (within the window) on startup,
+ * so replays after a restart are still recognised. Added keys are appended to the file in the
+ * background every flush interval, off the inbound path; once per window (or after max entries
+ * appends) the file is rewritten with just the live keys, so it stays bounded.
+ */
+@Slf4j
+public class InMemoryProcessedMessageStore implements ProcessedMessageStore, AutoCloseable {
+
+    private static final long DEFAULT_FLUSH_INTERVAL_MS = 1000;
+
+    private static final class Added {
+        private final String key;
+        private final long addedAt;
+
+        private Added(String key, long addedAt) {
+            this.key = key;
+            this.addedAt = addedAt;
+        }
+    }
+
+    private final long windowMs;
+    private final int maxEntries;
+    private final Path persistencePath;
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>();
+    // Keys added since the last persist; guarded by this, like entries
+    private List<Added> pending = new ArrayList<>();
+
+    // File state, guarded by fileLock (taken before this, never while holding this)
+    private final Object fileLock = new Object();
+    private BufferedWriter writer;
+    private long compactedAt;
+    private int appendedSinceCompaction;
+    private volatile boolean persistent;
+
+    private Disposable periodicPersist;
+
+    public InMemoryProcessedMessageStore(long windowMs, int maxEntries) {
+        this(windowMs, maxEntries, null);
+    }
+
+    public InMemoryProcessedMessageStore(long windowMs, int maxEntries, Path persistencePath) {
+        this(windowMs, maxEntries, persistencePath, DEFAULT_FLUSH_INTERVAL_MS);
+    }
+
+    public InMemoryProcessedMessageStore(long windowMs, int maxEntries, Path persistencePath, long flushIntervalMs) {
+        this.windowMs = windowMs;
+        this.maxEntries = maxEntries;
+        this.persistencePath = persistencePath;
+        if (persistencePath != null) {
+            load();
+            if (persistent) {
+                periodicPersist = Flux.interval(Duration.ofMillis(flushIntervalMs), Duration.ofMillis(flushIntervalMs), Schedulers.boundedElastic())
+                        .subscribe(tick -> persist());
+            }
+        }
+    }
+
+    @Override
+    public synchronized boolean contains(String key) {
+        Long addedAt = entries.get(key);
+        return addedAt != null && addedAt > System.currentTimeMillis() - windowMs;
+    }
+
+    @Override
+    public synchronized void add(String key) {
+        long now = System.currentTimeMillis();
+        entries.put(key, now);
+        evict(now);
+        if (persistent) {
+            pending.add(new Added(key, now));
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void close() {
+        if (periodicPersist != null) {
+            periodicPersist.dispose();
+            periodicPersist = null;
+        }
+        persist();
+        synchronized (fileLock) {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    log.error("Error closing processed message store: " + e.getMessage());
+                }
+                writer = null;
+            }
+        }
+    }
+
+    /**
+     * Append the keys added since the last call, or rewrite the file with the live keys when a
+     * compaction is due.
+     */
+    void persist() {
+        synchronized (fileLock) {
+            if (writer == null) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            boolean compactionDue = now - compactedAt >= windowMs || appendedSinceCompaction >= maxEntries;
+            List<Added> added;
+            synchronized (this) {
+                if (compactionDue) {
+                    evict(now);
+                    added = new ArrayList<>(entries.size());
+                    for (Map.Entry<String, Long> entry : entries.entrySet()) {
+                        added.add(new Added(entry.getKey(), entry.getValue()));
+                    }
+                } else {
+                    added = pending;
+                }
+                pending = new ArrayList<>();
+            }
+            try {
+                if (compactionDue) {
+                    compact(added, now);
+                } else if (!added.isEmpty()) {
+                    for (Added key : added) {
+                        write(writer, key);
+                    }
+                    writer.flush();
+                    appendedSinceCompaction += added.size();
+                }
+            } catch (IOException e) {
+                log.error("Error persisting processed message keys: " + e.getMessage());
+            }
+        }
+    }
+
+    private void evict(long now) {
+        long expiry = now - windowMs;
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            if (entries.size() > maxEntries || eldest.getValue() <= expiry) {
+                iterator.remove();
+            } else {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Replace the file with one holding just the given keys, then keep appending to it.
+     */
+    private void compact(List<Added> live, long now) throws IOException {
+        Path temp = persistencePath.resolveSibling(persistencePath.getFileName() + ".tmp");
+        try (BufferedWriter compacted = Files.newBufferedWriter(temp, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Added key : live) {
+                write(compacted, key);
+            }
+        }
+        if (writer != null) {
+            writer.close();
+        }
+        Files.move(temp, persistencePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        writer = Files.newBufferedWriter(persistencePath, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        compactedAt = now;
+        appendedSinceCompaction = 0;
+    }
+
+    private static void write(BufferedWriter writer, Added key) throws IOException {
+        writer.write(key.key);
+        writer.write(',');
+        writer.write(Long.toString(key.addedAt));
+        writer.newLine();
+    }
+
+    /**
+     * Reload keys still inside the window and compact the file to just those keys.
+     */
+    private void load() {
+        long now = System.currentTimeMillis();
+        try {
+            if (Files.exists(persistencePath)) {
+                List<String> lines = Files.readAllLines(persistencePath, StandardCharsets.UTF_8);
+                for (String line : lines) {
+                    int separator = line.lastIndexOf(',');
+                    if (separator <= 0) {
+                        continue;
+                    }
+                    try {
+                        entries.put(line.substring(0, separator), Long.parseLong(line.substring(separator + 1)));
+                    } catch (NumberFormatException e) {
+                        // Skip a partially written line
+                    }
+                }
+                evict(now);
+            } else if (persistencePath.getParent() != null) {
+                Files.createDirectories(persistencePath.getParent());
+            }
+            List<Added> live = new ArrayList<>(entries.size());
+            for (Map.Entry<String, Long> entry : entries.entrySet()) {
+                live.add(new Added(entry.getKey(), entry.getValue()));
+            }
+            synchronized (fileLock) {
+                compact(live, now);
+            }
+            persistent = true;
+            log.info("Loaded {} processed message keys from {}", entries.size(), persistencePath);
+        } catch (IOException e) {
+            log.error("Processed message store persistence disabled: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.uci.orchestrator.Dedup;
+
+/**
+ * Remembers which inbound messages have already been processed within a time window.
+ */
+public interface ProcessedMessageStore {
+
+    boolean contains(String key);
+
+    void add(String key);
+
+    int size();
+}
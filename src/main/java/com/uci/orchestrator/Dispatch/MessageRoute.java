@@ -0,0 +1,36 @@
+package com.uci.orchestrator.Dispatch;
+
+import messagerosa.core.model.XMessage;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Next step for an inbound message once its user and last message are resolved.
+ */
+public enum MessageRoute {
+
+    /**
+     * Publish to the transformer topic (orchestrator.odk-transformer topic)
+     */
+    TRANSFORMER,
+
+    /**
+     * Nothing further to do
+     */
+    NONE;
+
+    private static final Map<XMessage.MessageState, MessageRoute> BY_STATE = new EnumMap<>(XMessage.MessageState.class);
+
+    static {
+        BY_STATE.put(XMessage.MessageState.REPLIED, TRANSFORMER);
+        BY_STATE.put(XMessage.MessageState.OPTED_IN, TRANSFORMER);
+    }
+
+    /**
+     * Default routing: replies and opt-ins go on to the transformer, anything else stops here.
+     */
+    public static MessageRoute forState(XMessage.MessageState state) {
+        return state == null ? NONE : BY_STATE.getOrDefault(state, NONE);
+    }
+}
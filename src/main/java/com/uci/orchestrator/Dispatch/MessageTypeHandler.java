@@ -0,0 +1,48 @@
+package com.uci.orchestrator.Dispatch;
+
+import com.uci.dao.models.XMessageDAO;
+import messagerosa.core.model.XMessage;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Type specific steps of the inbound pipeline. Handlers are Spring beans; each one declares
+ * the message types it serves and {@link MessageTypeRegistry} picks them up, so new types
+ * (media, location, ...) plug in without touching the consumer.
+ */
+public interface MessageTypeHandler {
+
+    /**
+     * @return Message types served by this handler
+     */
+    Collection<XMessage.MessageType> types();
+
+    /**
+     * Resolve the ID of the message the user is answering.
+     *
+     * @param msg           - Inbound message, with its user resolved
+     * @param latestMessage - Looks up the user's latest SENT/REPLIED message; lazy, only
+     *                        queried if subscribed
+     * @return the last message ID, or empty if the type has none
+     */
+    Mono<String> lastMessageID(XMessage msg, Function<String, Mono<XMessageDAO>> latestMessage);
+
+    /**
+     * Where the message goes next; by default decided by its state.
+     */
+    default MessageRoute route(XMessage msg) {
+        return MessageRoute.forState(msg.getMessageState());
+    }
+
+    /**
+     * Set the message's last message ID, if its type has one, then decide its route. Always
+     * emits a route, also when there is no last message.
+     */
+    default Mono<MessageRoute> resolve(XMessage msg, Function<String, Mono<XMessageDAO>> latestMessage) {
+        return lastMessageID(msg, latestMessage)
+                .doOnNext(msg::setLastMessageID)
+                .then(Mono.fromSupplier(() -> route(msg)));
+    }
+}
@@ -0,0 +1,69 @@
+package com.uci.orchestrator.Dispatch;
+
+import com.uci.dao.models.XMessageDAO;
+import lombok.extern.slf4j.Slf4j;
+import messagerosa.core.model.XMessage;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Resolves the {@link MessageTypeHandler} of a message type with a single EnumMap lookup.
+ * Types without a handler have no last message and follow the default routing.
+ */
+@Slf4j
+@Component
+public class MessageTypeRegistry {
+
+    static final MessageTypeHandler UNHANDLED = new MessageTypeHandler() {
+        @Override
+        public Collection<XMessage.MessageType> types() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Mono<String> lastMessageID(XMessage msg, Function<String, Mono<XMessageDAO>> latestMessage) {
+            return Mono.empty();
+        }
+    };
+
+    @Autowired
+    private ObjectProvider<MessageTypeHandler> handlers;
+
+    private final Map<XMessage.MessageType, MessageTypeHandler> byType = new EnumMap<>(XMessage.MessageType.class);
+
+    public MessageTypeRegistry() {
+    }
+
+    public MessageTypeRegistry(Collection<MessageTypeHandler> handlers) {
+        handlers.forEach(this::register);
+    }
+
+    @PostConstruct
+    public void init() {
+        handlers.orderedStream().forEach(this::register);
+        log.info("Message type handlers: {}", byType);
+    }
+
+    public MessageTypeHandler handler(XMessage.MessageType type) {
+        MessageTypeHandler handler = type == null ? null : byType.get(type);
+        return handler == null ? UNHANDLED : handler;
+    }
+
+    private void register(MessageTypeHandler handler) {
+        for (XMessage.MessageType type : handler.types()) {
+            // With @Order on handlers the first registration for a type wins
+            if (byType.putIfAbsent(type, handler) != null) {
+                log.warn("Message type {} already handled by {}, ignoring {}", type, byType.get(type), handler);
+            }
+        }
+    }
+}
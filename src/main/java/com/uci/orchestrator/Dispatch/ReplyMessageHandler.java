@@ -0,0 +1,28 @@
+package com.uci.orchestrator.Dispatch;
+
+import com.uci.dao.models.XMessageDAO;
+import messagerosa.core.model.XMessage;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Text and button messages answer the last message sent to the user.
+ */
+@Component
+public class ReplyMessageHandler implements MessageTypeHandler {
+
+    @Override
+    public Collection<XMessage.MessageType> types() {
+        return Arrays.asList(XMessage.MessageType.TEXT, XMessage.MessageType.BUTTON);
+    }
+
+    @Override
+    public Mono<String> lastMessageID(XMessage msg, Function<String, Mono<XMessageDAO>> latestMessage) {
+        return latestMessage.apply(msg.getFrom().getUserID())
+                .map(lastMessage -> lastMessage.getId() == null ? "" : String.valueOf(lastMessage.getId()));
+    }
+}
@@ -0,0 +1,78 @@
+package com.uci.orchestrator.Execution;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Decides where the blocking stages of the pipeline (FusionAuth client calls, Kafka
+ * producer sends, JAXB marshalling) run.
+ *
+ * REACTIVE runs them inline on the calling (event loop) thread, as before.
+ * BOUNDED_ELASTIC offloads them to a dedicated bounded elastic scheduler.
+ * VIRTUAL_THREADS runs each on a new virtual thread; on a JDK without virtual threads it
+ * falls back to BOUNDED_ELASTIC.
+ */
+@Slf4j
+public class BlockingExecution implements AutoCloseable {
+
+    public enum Mode {REACTIVE, BOUNDED_ELASTIC, VIRTUAL_THREADS}
+
+    @Getter
+    private final Mode mode;
+    private final Scheduler scheduler;
+
+    public BlockingExecution(Mode mode, int threadCap, int queuedTaskCap) {
+        Scheduler virtualThreadScheduler = mode == Mode.VIRTUAL_THREADS ? virtualThreadScheduler() : null;
+        if (mode == Mode.VIRTUAL_THREADS && virtualThreadScheduler == null) {
+            log.warn("Virtual threads are not supported by this JDK, falling back to a bounded elastic scheduler");
+            mode = Mode.BOUNDED_ELASTIC;
+        }
+        this.mode = mode;
+        switch (mode) {
+            case VIRTUAL_THREADS:
+                this.scheduler = virtualThreadScheduler;
+                break;
+            case BOUNDED_ELASTIC:
+                this.scheduler = Schedulers.newBoundedElastic(threadCap, queuedTaskCap, "orchestrator-blocking");
+                break;
+            default:
+                this.scheduler = null;
+        }
+        log.info("Blocking stages run in {} mode", this.mode);
+    }
+
+    public <T> Mono<T> fromCallable(Callable<T> call) {
+        Mono<T> mono = Mono.fromCallable(call);
+        return scheduler == null ? mono : mono.subscribeOn(scheduler);
+    }
+
+    public Mono<Void> fromRunnable(Runnable runnable) {
+        Mono<Void> mono = Mono.fromRunnable(runnable);
+        return scheduler == null ? mono : mono.subscribeOn(scheduler);
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.dispose();
+        }
+    }
+
+    private static Scheduler virtualThreadScheduler() {
+        try {
+            // Looked up reflectively so the project still builds for JDK 11
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return Schedulers.fromExecutorService((ExecutorService) factory.invoke(null));
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.uci.orchestrator.Execution;
+
+/**
+ * Thrown when bulk work cannot even be queued because the bulk lane's queue is full.
+ */
+public class LaneSaturatedException extends RuntimeException {
+
+    public LaneSaturatedException(PriorityLanes.Lane lane) {
+        super("Priority lane " + lane + " is saturated", null, false, false);
+    }
+}
@@ -0,0 +1,198 @@
+package com.uci.orchestrator.Execution;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Admission control between interactive replies and bulk (campaign/broadcast) work sharing
+ * the same JVM and downstream pools.
+ *
+ * A fixed number of permits bounds the work in flight. Bulk work may hold at most
+ * (total - reserved) permits, so the reserved part is always available to interactive
+ * messages; interactive work may use any free permit. Work that finds no permit waits in its
+ * lane's queue, and freed permits go to the interactive queue first.
+ *
+ * Only the bulk queue is bounded. Interactive work is bounded by the inbound consumer's
+ * concurrency, which stops fetching while its records wait here; rejecting an inbound record
+ * instead would drop it.
+ */
+public class PriorityLanes {
+
+    public enum Lane {INTERACTIVE, BULK}
+
+    /**
+     * A permit and the work waiting for it. Exactly one of grant and cancel wins {@link #done};
+     * a permit taken for work that was cancelled meanwhile is returned.
+     */
+    private final class Permit {
+        private final Lane lane;
+        private final MonoSink<Permit> sink;
+        private final long enqueuedAt = System.nanoTime();
+        private final AtomicBoolean done = new AtomicBoolean();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Lane lane, MonoSink<Permit> sink) {
+            this.lane = lane;
+            this.sink = sink;
+        }
+    }
+
+    private final int maxQueued;
+
+    // Guarded by this
+    private int totalPermits;
+    private int reservedInteractive;
+    private final int[] inUse = new int[Lane.values().length];
+    private final List<ArrayDeque<Permit>> queues = new ArrayList<>();
+
+    private final Timer[] waitTime = new Timer[Lane.values().length];
+    private final Counter[] rejected = new Counter[Lane.values().length];
+
+    public PriorityLanes(int totalPermits, int reservedInteractive, int maxQueued, MeterRegistry meterRegistry) {
+        this.totalPermits = totalPermits;
+        this.reservedInteractive = Math.min(reservedInteractive, totalPermits - 1);
+        this.maxQueued = maxQueued;
+        for (Lane lane : Lane.values()) {
+            String tag = lane.name().toLowerCase();
+            queues.add(new ArrayDeque<>());
+            waitTime[lane.ordinal()] = Timer.builder("orchestrator.lane.wait").tag("lane", tag).register(meterRegistry);
+            rejected[lane.ordinal()] = Counter.builder("orchestrator.lane.rejected").tag("lane", tag).register(meterRegistry);
+            Gauge.builder("orchestrator.lane.queue.depth", this, lanes -> lanes.queued(lane)).tag("lane", tag).register(meterRegistry);
+            Gauge.builder("orchestrator.lane.in.flight", this, lanes -> lanes.inFlight(lane)).tag("lane", tag).register(meterRegistry);
+        }
+    }
+
+    /**
+     * Run {@code work} once a permit of the lane is available; the permit is held until the
+     * returned Mono terminates or is cancelled.
+     */
+    public <T> Mono<T> run(Lane lane, Supplier<Mono<T>> work) {
+        return acquire(lane).flatMap(permit -> Mono.defer(work).doFinally(signalType -> release(permit)));
+    }
+
+    /**
+     * Change the permits at runtime. Work already holding permits keeps them; with lower limits
+     * new work waits until enough of it finished.
+     */
+    public void setLimits(int totalPermits, int reservedInteractive) {
+        if (totalPermits < 1) {
+            throw new IllegalArgumentException("totalPermits must be positive");
+        }
+        synchronized (this) {
+            this.totalPermits = totalPermits;
+            this.reservedInteractive = Math.min(reservedInteractive, totalPermits - 1);
+        }
+        grantAll(dispatch());
+    }
+
+    public synchronized int totalPermits() {
+        return totalPermits;
+    }
+
+    public synchronized int reservedInteractive() {
+        return reservedInteractive;
+    }
+
+    public synchronized int queued(Lane lane) {
+        return queues.get(lane.ordinal()).size();
+    }
+
+    public synchronized int inFlight(Lane lane) {
+        return inUse[lane.ordinal()];
+    }
+
+    private Mono<Permit> acquire(Lane lane) {
+        return Mono.create(sink -> {
+            Permit permit = new Permit(lane, sink);
+            sink.onCancel(() -> {
+                if (permit.done.compareAndSet(false, true)) {
+                    // Still queued, or taken by a dispatch that will see it is done and return it
+                    synchronized (this) {
+                        queues.get(lane.ordinal()).remove(permit);
+                    }
+                } else {
+                    // Granted, but the subscriber went away before the permit was delivered
+                    release(permit);
+                }
+            });
+            boolean granted = false;
+            synchronized (this) {
+                if (queues.get(lane.ordinal()).isEmpty() && canGrant(lane)) {
+                    inUse[lane.ordinal()]++;
+                    granted = true;
+                } else if (lane == Lane.BULK && queues.get(lane.ordinal()).size() >= maxQueued) {
+                    rejected[lane.ordinal()].increment();
+                    permit.done.set(true);
+                    sink.error(new LaneSaturatedException(lane));
+                    return;
+                } else {
+                    queues.get(lane.ordinal()).add(permit);
+                }
+            }
+            if (granted) {
+                grant(permit);
+            }
+        });
+    }
+
+    private boolean canGrant(Lane lane) {
+        int used = inUse[Lane.INTERACTIVE.ordinal()] + inUse[Lane.BULK.ordinal()];
+        if (used >= totalPermits) {
+            return false;
+        }
+        return lane == Lane.INTERACTIVE || inUse[Lane.BULK.ordinal()] < totalPermits - reservedInteractive;
+    }
+
+    private void release(Permit permit) {
+        if (!permit.released.compareAndSet(false, true)) {
+            return;
+        }
+        List<Permit> granted;
+        synchronized (this) {
+            inUse[permit.lane.ordinal()]--;
+            granted = dispatch();
+        }
+        grantAll(granted);
+    }
+
+    /**
+     * Take permits for queued work, interactive lane first.
+     */
+    private synchronized List<Permit> dispatch() {
+        List<Permit> granted = new ArrayList<>(2);
+        for (Lane lane : Lane.values()) {
+            ArrayDeque<Permit> queue = queues.get(lane.ordinal());
+            while (!queue.isEmpty() && canGrant(lane)) {
+                inUse[lane.ordinal()]++;
+                granted.add(queue.poll());
+            }
+        }
+        return granted;
+    }
+
+    private void grantAll(List<Permit> granted) {
+        for (Permit next : granted) {
+            grant(next);
+        }
+    }
+
+    private void grant(Permit permit) {
+        if (!permit.done.compareAndSet(false, true)) {
+            release(permit);
+            return;
+        }
+        waitTime[permit.lane.ordinal()].record(System.nanoTime() - permit.enqueuedAt, TimeUnit.NANOSECONDS);
+        permit.sink.success(permit);
+    }
+}
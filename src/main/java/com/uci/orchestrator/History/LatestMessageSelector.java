@@ -0,0 +1,73 @@
+package com.uci.orchestrator.History;
+
+import com.uci.dao.models.XMessageDAO;
+import messagerosa.core.model.XMessage;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Single pass selection of a user's latest message in a set of states. Only the current
+ * best element is kept, so a lookup allocates the same regardless of how many messages
+ * the user has; no list, filtered copy or sort is needed.
+ */
+public final class LatestMessageSelector {
+
+    public static final LatestMessageSelector SENT_OR_REPLIED =
+            new LatestMessageSelector(EnumSet.of(XMessage.MessageState.SENT, XMessage.MessageState.REPLIED));
+
+    private static final Map<String, XMessage.MessageState> STATES_BY_NAME = new HashMap<>();
+
+    static {
+        for (XMessage.MessageState state : XMessage.MessageState.values()) {
+            STATES_BY_NAME.put(state.name(), state);
+        }
+    }
+
+    private final EnumSet<XMessage.MessageState> states;
+
+    private LatestMessageSelector(EnumSet<XMessage.MessageState> states) {
+        this.states = states;
+    }
+
+    public static LatestMessageSelector of(XMessage.MessageState state) {
+        return new LatestMessageSelector(EnumSet.of(state));
+    }
+
+    /**
+     * @return the message state for a stored state name, or null if it is not a known state
+     */
+    public static XMessage.MessageState state(String name) {
+        return name == null ? null : STATES_BY_NAME.get(name);
+    }
+
+    public boolean matches(XMessageDAO message) {
+        XMessage.MessageState state = state(message.getMessageState());
+        return state != null && states.contains(state) && message.getTimestamp() != null;
+    }
+
+    /**
+     * @return the latest matching message, or null if none matches
+     */
+    public XMessageDAO select(Iterable<XMessageDAO> messages) {
+        XMessageDAO latest = null;
+        for (XMessageDAO message : messages) {
+            if (matches(message) && (latest == null || message.getTimestamp().isAfter(latest.getTimestamp()))) {
+                latest = message;
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * @return the latest matching message, or empty if none matches
+     */
+    public Mono<XMessageDAO> select(Flux<XMessageDAO> messages) {
+        return messages
+                .filter(this::matches)
+                .reduce((latest, message) -> message.getTimestamp().isAfter(latest.getTimestamp()) ? message : latest);
+    }
+}
@@ -0,0 +1,153 @@
+package com.uci.orchestrator.History;
+
+import com.uci.dao.models.XMessageDAO;
+import com.uci.dao.repository.XMessageRepository;
+import com.uci.orchestrator.Resilience.DependencyGuards;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Loader for a user's latest message in a set of states, that collapses concurrent lookups.
+ *
+ * The repository rows are streamed through a {@link LatestMessageSelector}, so only the current
+ * latest message is held, never the user's whole history. A lookup for a user whose latest
+ * message is already being selected, with the same selector and a time bound at least as wide,
+ * joins that query instead of issuing its own: the latest message of the wider window is also
+ * the latest of the narrower one if it falls inside it, and otherwise the narrower window has
+ * none. Lookups are never delayed to wait for others: XMessageRepository has no multi-user
+ * query, so only lookups for the same user can share one.
+ */
+@Slf4j
+@Component
+public class XMessageHistoryLoader {
+
+    private static final class Waiter {
+        private final LocalDateTime since;
+        private final MonoSink<XMessageDAO> sink;
+
+        private Waiter(LocalDateTime since, MonoSink<XMessageDAO> sink) {
+            this.since = since;
+            this.sink = sink;
+        }
+    }
+
+    private static final class UserLookup {
+        private final String userID;
+        private final LocalDateTime since;
+        private final LatestMessageSelector selector;
+        private final List<Waiter> waiters = new ArrayList<>(2);
+
+        private UserLookup(String userID, LocalDateTime since, LatestMessageSelector selector) {
+            this.userID = userID;
+            this.since = since;
+            this.selector = selector;
+        }
+    }
+
+    @Autowired
+    private XMessageRepository xMessageRepository;
+
+    @Autowired
+    private DependencyGuards dependencyGuards;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${orchestrator.history.coalescing-enabled:true}")
+    private boolean coalescingEnabled;
+
+    // Lookups whose query is still running, by user; guarded by itself
+    private final Map<String, UserLookup> inFlight = new HashMap<>();
+
+    private Counter lookups;
+    private Counter queriesIssued;
+
+    @PostConstruct
+    public void init() {
+        lookups = Counter.builder("orchestrator.history.lookups").register(meterRegistry);
+        queriesIssued = Counter.builder("orchestrator.history.queries").register(meterRegistry);
+    }
+
+    /**
+     * @return the user's latest message after {@code since} matching the selector, or empty if none
+     */
+    public Mono<XMessageDAO> latest(String userID, LocalDateTime since, LatestMessageSelector selector) {
+        lookups.increment();
+        if (!coalescingEnabled) {
+            queriesIssued.increment();
+            return query(userID, since, selector);
+        }
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(since, sink);
+            UserLookup lookup;
+            boolean issue = false;
+            synchronized (inFlight) {
+                lookup = inFlight.get(userID);
+                if (lookup == null || lookup.selector != selector || lookup.since.isAfter(since)) {
+                    // A running query with another selector or a narrower bound keeps its waiters but takes no new ones
+                    lookup = new UserLookup(userID, since, selector);
+                    inFlight.put(userID, lookup);
+                    issue = true;
+                }
+                lookup.waiters.add(waiter);
+            }
+            if (issue) {
+                execute(lookup);
+            }
+        });
+    }
+
+    private void execute(UserLookup lookup) {
+        queriesIssued.increment();
+        query(lookup.userID, lookup.since, lookup.selector)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .subscribe(
+                        result -> {
+                            XMessageDAO latest = result.orElse(null);
+                            for (Waiter waiter : complete(lookup)) {
+                                if (latest != null && (waiter.since.equals(lookup.since) || latest.getTimestamp().isAfter(waiter.since))) {
+                                    waiter.sink.success(latest);
+                                } else {
+                                    waiter.sink.success();
+                                }
+                            }
+                        },
+                        e -> {
+                            for (Waiter waiter : complete(lookup)) {
+                                waiter.sink.error(e);
+                            }
+                        });
+    }
+
+    /**
+     * Stop accepting waiters for the lookup.
+     *
+     * @return The lookup's waiters
+     */
+    private List<Waiter> complete(UserLookup lookup) {
+        synchronized (inFlight) {
+            inFlight.remove(lookup.userID, lookup);
+            return new ArrayList<>(lookup.waiters);
+        }
+    }
+
+    Mono<XMessageDAO> query(String userID, LocalDateTime since, LatestMessageSelector selector) {
+        return dependencyGuards.get(DependencyGuards.CASSANDRA)
+                .protect(selector.select(xMessageRepository.findAllByUserIdAndTimestampAfter(userID, since)));
+    }
+}
@@ -0,0 +1,17 @@
+package com.uci.orchestrator.Publisher;
+
+import messagerosa.core.model.XMessage;
+
+/**
+ * Chooses the Kafka record key for an outbound XMessage. Records with the same key land on
+ * the same partition, and so on the same downstream consumer instance.
+ *
+ * Define a bean of this type to replace the configured {@link MessageKeyField}.
+ */
+public interface MessageKeyExtractor {
+
+    /**
+     * @return the record key, or null to let the partitioner spread the record
+     */
+    String key(XMessage xMessage);
+}
@@ -0,0 +1,39 @@
+package com.uci.orchestrator.Publisher;
+
+import messagerosa.core.model.SenderReceiverInfo;
+import messagerosa.core.model.XMessage;
+
+/**
+ * Built-in record keys, selected by orchestrator.publish.key-field.
+ */
+public enum MessageKeyField implements MessageKeyExtractor {
+
+    FROM_USER {
+        @Override
+        public String key(XMessage xMessage) {
+            return userID(xMessage.getFrom());
+        }
+    },
+    TO_USER {
+        @Override
+        public String key(XMessage xMessage) {
+            return userID(xMessage.getTo());
+        }
+    },
+    APP {
+        @Override
+        public String key(XMessage xMessage) {
+            return xMessage.getApp();
+        }
+    },
+    NONE {
+        @Override
+        public String key(XMessage xMessage) {
+            return null;
+        }
+    };
+
+    private static String userID(SenderReceiverInfo info) {
+        return info == null ? null : info.getUserID();
+    }
+}
@@ -0,0 +1,146 @@
+package com.uci.orchestrator.Publisher;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.config.ConfigException;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.kafka.sender.KafkaOutbound;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.SenderResult;
+import reactor.kafka.sender.TransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * KafkaSender whose producer settings (linger, batch size, ...) can be changed at runtime.
+ * Producer configs are fixed once a KafkaProducer is created, so a reconfiguration creates a
+ * new sender that takes over all new sends; the previous one is closed (flushing what it
+ * still holds) after a grace period, so sends already handed to it complete normally. Senders
+ * retired but not closed yet are flushed by {@link #flush()} and closed by {@link #close()}.
+ */
+@Slf4j
+public class TunableKafkaSender<K, V> implements KafkaSender<K, V> {
+
+    private final String name;
+    private final Duration retireDelay;
+    private final Map<String, Object> producerProperties;
+    private final int maxInFlight;
+    private volatile KafkaSender<K, V> current;
+    // Replaced senders waiting for their grace period to end; guarded by this
+    private final Set<KafkaSender<K, V>> retired = new HashSet<>();
+
+    public TunableKafkaSender(String name, SenderOptions<K, V> options, Duration retireDelay) {
+        this.name = name;
+        this.retireDelay = retireDelay;
+        this.producerProperties = new HashMap<>(options.producerProperties());
+        this.maxInFlight = options.maxInFlight();
+        this.current = KafkaSender.create(options);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized Map<String, Object> producerProperties() {
+        return new HashMap<>(producerProperties);
+    }
+
+    /**
+     * Apply changed producer properties to all sends from now on. The changed configuration is
+     * validated first; if it is invalid the current sender is kept.
+     *
+     * @throws IllegalArgumentException if the changed configuration is invalid
+     */
+    public synchronized void reconfigure(Map<String, Object> changes) {
+        Map<String, Object> properties = new HashMap<>(producerProperties);
+        properties.putAll(changes);
+        try {
+            new ProducerConfig(properties);
+        } catch (ConfigException e) {
+            throw new IllegalArgumentException("Invalid configuration for producer " + name + ": " + e.getMessage(), e);
+        }
+        producerProperties.putAll(changes);
+        KafkaSender<K, V> previous = current;
+        current = KafkaSender.create(SenderOptions.<K, V>create(properties).maxInFlight(maxInFlight));
+        retired.add(previous);
+        log.info("Producer {} reconfigured with {}", name, changes);
+        Mono.delay(retireDelay, Schedulers.boundedElastic()).subscribe(tick -> retire(previous));
+    }
+
+    private void retire(KafkaSender<K, V> sender) {
+        synchronized (this) {
+            if (!retired.remove(sender)) {
+                // Already closed by close()
+                return;
+            }
+        }
+        sender.close();
+    }
+
+    /**
+     * Flush the current producer and those of retired senders not closed yet.
+     */
+    public Mono<Void> flush() {
+        List<KafkaSender<K, V>> senders;
+        synchronized (this) {
+            senders = new ArrayList<>(retired);
+            senders.add(current);
+        }
+        // A retired sender closed meanwhile has flushed on close, so its error is ignored
+        return Flux.fromIterable(senders)
+                .flatMap(sender -> sender.doOnProducer(producer -> {
+                    producer.flush();
+                    return true;
+                }).onErrorResume(e -> Mono.empty()))
+                .then();
+    }
+
+    @Override
+    public <T> Flux<SenderResult<T>> send(Publisher<? extends SenderRecord<K, V, T>> records) {
+        return current.send(records);
+    }
+
+    @Override
+    public <T> Flux<Flux<SenderResult<T>>> sendTransactionally(Publisher<? extends Publisher<? extends SenderRecord<K, V, T>>> records) {
+        return current.sendTransactionally(records);
+    }
+
+    @Override
+    public TransactionManager transactionManager() {
+        return current.transactionManager();
+    }
+
+    @Override
+    public KafkaOutbound<K, V> createOutbound() {
+        return current.createOutbound();
+    }
+
+    @Override
+    public <T> Mono<T> doOnProducer(Function<Producer<K, V>, ? extends T> function) {
+        return current.doOnProducer(function);
+    }
+
+    @Override
+    public void close() {
+        List<KafkaSender<K, V>> senders;
+        synchronized (this) {
+            senders = new ArrayList<>(retired);
+            retired.clear();
+        }
+        senders.forEach(KafkaSender::close);
+        current.close();
+    }
+}
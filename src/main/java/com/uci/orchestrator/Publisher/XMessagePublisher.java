@@ -0,0 +1,160 @@
+package com.uci.orchestrator.Publisher;
+
+import com.uci.orchestrator.Execution.BlockingExecution;
+import com.uci.orchestrator.Replay.ReplaySink;
+import com.uci.orchestrator.Replay.TrafficCapture;
+import lombok.extern.slf4j.Slf4j;
+import messagerosa.core.model.XMessage;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.SenderResult;
+
+import javax.annotation.PostConstruct;
+import javax.xml.bind.JAXBException;
+
+/**
+ * Publishes outbound XMessages as keyed Kafka records so that all of a user's traffic goes
+ * to the same partition (see orchestrator.publish.key-field and
+ * orchestrator.publish.partitioner-class).
+ */
+@Slf4j
+@Component
+public class XMessagePublisher {
+
+    @Autowired
+    private KafkaSender<String, String> keyedKafkaSender;
+
+    @Autowired
+    private KafkaSender<String, String> bulkKafkaSender;
+
+    @Autowired
+    private BlockingExecution blockingExecution;
+
+    @Autowired
+    private ObjectProvider<MessageKeyExtractor> customKeyExtractor;
+
+    @Autowired
+    private TrafficCapture trafficCapture;
+
+    @Autowired
+    private ReplaySink replaySink;
+
+    @Value("${orchestrator.replay.enabled:false}")
+    private boolean replayEnabled;
+
+    @Value("${orchestrator.publish.key-field:FROM_USER}")
+    private MessageKeyField keyField;
+
+    @Value("${orchestrator.publish.broadcast-key-field:TO_USER}")
+    private MessageKeyField broadcastKeyField;
+
+    private MessageKeyExtractor keyExtractor;
+
+    @PostConstruct
+    public void init() {
+        keyExtractor = customKeyExtractor.getIfAvailable(() -> keyField);
+    }
+
+    public String key(XMessage xMessage) {
+        return keyExtractor.key(xMessage);
+    }
+
+    /**
+     * @param senderKey - Stable key of the sender, used instead of from.userID (which changes
+     *                  when the user registers) if the key field is FROM_USER; may be null
+     */
+    public String key(XMessage xMessage, String senderKey) {
+        return senderKey != null && keyExtractor == MessageKeyField.FROM_USER ? senderKey : key(xMessage);
+    }
+
+    public <T> SenderRecord<String, String, T> record(String topic, XMessage xMessage, T correlationMetadata) throws JAXBException {
+        return record(topic, xMessage, null, correlationMetadata);
+    }
+
+    private <T> SenderRecord<String, String, T> record(String topic, XMessage xMessage, String senderKey, T correlationMetadata) throws JAXBException {
+        return SenderRecord.create(topic, null, null, key(xMessage, senderKey), xMessage.toXML(), correlationMetadata);
+    }
+
+    /**
+     * Broadcasts come from "admin"; they are keyed separately (by target segment by default).
+     */
+    public <T> SenderRecord<String, String, T> broadcastRecord(String topic, XMessage xMessage, T correlationMetadata) throws JAXBException {
+        return SenderRecord.create(topic, null, null, broadcastKeyField.key(xMessage), xMessage.toXML(), correlationMetadata);
+    }
+
+    /**
+     * Marshal and publish a single message; completes once the broker acknowledged it.
+     */
+    public Mono<Void> publish(String topic, XMessage xMessage) {
+        return publish(topic, xMessage, null);
+    }
+
+    /**
+     * @param senderKey - See {@link #key(XMessage, String)}
+     */
+    public Mono<Void> publish(String topic, XMessage xMessage, String senderKey) {
+        return blockingExecution.fromCallable(() -> record(topic, xMessage, senderKey, (Void) null))
+                .flatMap(record -> Mono.subscriberContext().flatMap(context -> {
+                    String source = context.getOrDefault(TrafficCapture.SOURCE, "");
+                    if (replayEnabled) {
+                        // Replay mode: outputs go to the sink for comparison, never to Kafka
+                        replaySink.accept(source, record.topic(), record.key(), record.value());
+                        return Mono.<Void>empty();
+                    }
+                    return keyedKafkaSender.send(Mono.just(record)).next()
+                            .flatMap(result -> result.exception() != null ? Mono.<Void>error(result.exception()) : Mono.<Void>empty())
+                            .doOnSuccess(done -> {
+                                if (trafficCapture.isEnabled()) {
+                                    trafficCapture.captureOutbound(source, record.topic(), record.key(), record.value());
+                                }
+                            });
+                }));
+    }
+
+    /**
+     * Publish a batch of broadcast records in one pipelined send, on the bulk producer.
+     */
+    public <T> Flux<SenderResult<T>> publishBulk(Flux<SenderRecord<String, String, T>> records) {
+        if (replayEnabled) {
+            // Replay mode: broadcasts go to the sink as well, never to Kafka
+            return records.map(record -> {
+                replaySink.accept("", record.topic(), record.key(), record.value());
+                return new ReplayedResult<>(record.correlationMetadata());
+            });
+        }
+        return bulkKafkaSender.send(records);
+    }
+
+    /**
+     * Result of a record sent to the replay sink instead of Kafka
+     */
+    private static final class ReplayedResult<T> implements SenderResult<T> {
+        private final T correlationMetadata;
+
+        private ReplayedResult(T correlationMetadata) {
+            this.correlationMetadata = correlationMetadata;
+        }
+
+        @Override
+        public RecordMetadata recordMetadata() {
+            return null;
+        }
+
+        @Override
+        public Exception exception() {
+            return null;
+        }
+
+        @Override
+        public T correlationMetadata() {
+            return correlationMetadata;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.uci.orchestrator.Replay;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of a traffic capture: an inbound record as received, or an outbound record
+ * published while processing it (linked by source, topic-partition@offset of the inbound record).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CapturedRecord {
+
+    public static final String INBOUND = "in";
+    public static final String OUTBOUND = "out";
+
+    private String kind;
+    private long timestamp;
+    private String source;
+    private String topic;
+    private String key;
+    private String value;
+}
@@ -0,0 +1,31 @@
+package com.uci.orchestrator.Replay;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a replay run. Latencies are in milliseconds, measured from the time each record
+ * was due (so a pipeline that falls behind shows up in the percentiles), and output
+ * differences compare what the replayed records published with what was captured.
+ */
+@Data
+public class ReplayReport {
+
+    private double speed;
+    private int records;
+    private int failures;
+    private long durationMs;
+    private double throughputPerSecond;
+    private double latencyP50Ms;
+    private double latencyP90Ms;
+    private double latencyP99Ms;
+    private double latencyMaxMs;
+    private int outputs;
+    private int matchingOutputs;
+    private int differingOutputs;
+    private int missingOutputs;
+    private int unexpectedOutputs;
+    private List<String> differingSources = new ArrayList<>();
+}
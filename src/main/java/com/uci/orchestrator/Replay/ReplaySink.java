@@ -0,0 +1,32 @@
+package com.uci.orchestrator.Replay;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Receives outbound records in replay mode instead of Kafka, grouped by the inbound record
+ * they were produced for.
+ */
+@Component
+public class ReplaySink {
+
+    private final Map<String, List<CapturedRecord>> outputs = new HashMap<>();
+
+    public synchronized void accept(String source, String topic, String key, String value) {
+        outputs.computeIfAbsent(source, s -> new ArrayList<>())
+                .add(new CapturedRecord(CapturedRecord.OUTBOUND, System.currentTimeMillis(), source, topic, key, value));
+    }
+
+    /**
+     * @return Outputs collected since the last drain, by source
+     */
+    public synchronized Map<String, List<CapturedRecord>> drain() {
+        Map<String, List<CapturedRecord>> drained = new HashMap<>(outputs);
+        outputs.clear();
+        return drained;
+    }
+}
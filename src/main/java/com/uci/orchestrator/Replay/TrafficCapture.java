@@ -0,0 +1,132 @@
+package com.uci.orchestrator.Replay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Captures live traffic to a JSON lines file for {@link TrafficReplayer}: every inbound record
+ * with its receive time, and every record published while processing it. Enabled by setting
+ * orchestrator.replay.capture-path; never active in replay mode. The file is flushed every
+ * orchestrator.replay.capture-flush-interval-ms, so a capture is usable while the instance runs.
+ */
+@Slf4j
+@Component
+public class TrafficCapture {
+
+    /**
+     * Reactor context key carrying the source (topic-partition@offset) of the record being processed
+     */
+    public static final String SOURCE = "orchestrator.replay.source";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Value("${orchestrator.replay.capture-path:}")
+    private String capturePath;
+
+    @Value("${orchestrator.replay.enabled:false}")
+    private boolean replayEnabled;
+
+    @Value("${orchestrator.replay.capture-flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    private BufferedWriter writer;
+    private Disposable periodicFlush;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (capturePath.isEmpty() || replayEnabled) {
+            return;
+        }
+        Path path = Paths.get(capturePath);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        periodicFlush = Flux.interval(Duration.ofMillis(flushIntervalMs), Duration.ofMillis(flushIntervalMs), Schedulers.boundedElastic())
+                .subscribe(tick -> flush());
+        log.info("Capturing inbound traffic to {}", path);
+    }
+
+    public boolean isEnabled() {
+        return writer != null;
+    }
+
+    public void captureInbound(String source, String topic, String key, String value, long timestamp) {
+        write(new CapturedRecord(CapturedRecord.INBOUND, timestamp, source, topic, key, value));
+    }
+
+    public void captureOutbound(String source, String topic, String key, String value) {
+        write(new CapturedRecord(CapturedRecord.OUTBOUND, System.currentTimeMillis(), source, topic, key, value));
+    }
+
+    private synchronized void write(CapturedRecord record) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.write(mapper.writeValueAsString(record));
+            writer.newLine();
+        } catch (IOException e) {
+            log.error("Error capturing record " + record.getSource() + ": " + e.getMessage());
+        }
+    }
+
+    public synchronized void flush() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            log.error("Error flushing traffic capture: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (periodicFlush != null) {
+            periodicFlush.dispose();
+            periodicFlush = null;
+        }
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    /**
+     * Read a capture file, in file order.
+     */
+    public static List<CapturedRecord> read(Path path) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        List<CapturedRecord> records = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    records.add(mapper.readValue(line, CapturedRecord.class));
+                }
+            }
+        }
+        return records;
+    }
+}
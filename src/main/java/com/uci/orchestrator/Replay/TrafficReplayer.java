@@ -0,0 +1,240 @@
+package com.uci.orchestrator.Replay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uci.orchestrator.Consumer.ReactiveConsumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Replays a capture written by {@link TrafficCapture} through the inbound pipeline, at the
+ * captured pace (speed 1), N times faster (speed N) or as fast as possible (speed 0).
+ *
+ * Replay mode (orchestrator.replay.enabled) does not consume the inbound or campaign topics
+ * and sends outbound records to {@link ReplaySink} instead of Kafka, so a build can be compared
+ * with the captured outputs. Replayed records still call FusionAuth and the bot service
+ * (botService.updateUser registers unknown users), so replay mode only starts once those are
+ * pointed at stubs and orchestrator.replay.stubbed-dependencies is set.
+ */
+@Slf4j
+@Component
+public class TrafficReplayer {
+
+    private static final int MAX_REPORTED_SOURCES = 100;
+
+    @Autowired
+    private ReactiveConsumer reactiveConsumer;
+
+    @Autowired
+    private ReplaySink replaySink;
+
+    @Value("${orchestrator.replay.enabled:false}")
+    private boolean enabled;
+
+    @Value("${orchestrator.replay.stubbed-dependencies:false}")
+    private boolean stubbedDependencies;
+
+    @Value("${orchestrator.replay.input-path:}")
+    private String inputPath;
+
+    @Value("${orchestrator.replay.speed:1}")
+    private double defaultSpeed;
+
+    @Value("${orchestrator.replay.concurrency:256}")
+    private int concurrency;
+
+    @Value("${orchestrator.replay.auto-run:true}")
+    private boolean autoRun;
+
+    /**
+     * Regex of volatile output parts (ids, timestamps) removed before outputs are compared
+     */
+    @Value("${orchestrator.replay.ignore-pattern:}")
+    private String ignorePattern;
+
+    private final AtomicReference<ReplayReport> lastReport = new AtomicReference<>();
+    private final AtomicInteger running = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        if (enabled && !stubbedDependencies) {
+            throw new IllegalStateException("Replay mode calls FusionAuth and the bot service for every replayed record; "
+                    + "point fusionauth.url and campaign.url at stubs and set orchestrator.replay.stubbed-dependencies=true");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (enabled && autoRun && !inputPath.isEmpty()) {
+            start(defaultSpeed);
+        }
+    }
+
+    /**
+     * Start replaying the configured capture in the background.
+     *
+     * @return false if not in replay mode or a replay is already running
+     */
+    public boolean start(double speed) {
+        if (!enabled || inputPath.isEmpty() || !running.compareAndSet(0, 1)) {
+            return false;
+        }
+        replay(Paths.get(inputPath), speed)
+                .doFinally(signalType -> running.set(0))
+                .subscribe(report -> {
+                    lastReport.set(report);
+                    try {
+                        log.info("Replay report: {}", new ObjectMapper().writeValueAsString(report));
+                    } catch (Exception e) {
+                        log.info("Replay report: {}", report);
+                    }
+                }, e -> log.error("Replay of " + inputPath + " failed: " + e.getMessage()));
+        return true;
+    }
+
+    public ReplayReport lastReport() {
+        return lastReport.get();
+    }
+
+    public Mono<ReplayReport> replay(Path path, double speed) {
+        return Mono.fromCallable(() -> TrafficCapture.read(path))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(captured -> replay(captured, speed));
+    }
+
+    private Mono<ReplayReport> replay(List<CapturedRecord> captured, double speed) {
+        List<CapturedRecord> inbound = captured.stream()
+                .filter(record -> CapturedRecord.INBOUND.equals(record.getKind()))
+                .sorted(Comparator.comparingLong(CapturedRecord::getTimestamp))
+                .collect(Collectors.toList());
+        Map<String, List<CapturedRecord>> expected = captured.stream()
+                .filter(record -> CapturedRecord.OUTBOUND.equals(record.getKind()))
+                .collect(Collectors.groupingBy(CapturedRecord::getSource));
+        log.info("Replaying {} records at speed {}", inbound.size(), speed);
+
+        replaySink.drain();
+        long firstTimestamp = inbound.isEmpty() ? 0 : inbound.get(0).getTimestamp();
+        long[] latencies = new long[inbound.size()];
+        AtomicInteger failures = new AtomicInteger();
+        long startTime = System.nanoTime();
+
+        return Flux.range(0, inbound.size())
+                // Release each record at its captured offset from the first one, scaled by speed
+                .concatMap(i -> {
+                    long wait = dueAt(inbound.get(i), firstTimestamp, startTime, speed) - System.nanoTime();
+                    return wait > 0 ? Mono.delay(Duration.ofNanos(wait)).thenReturn(i) : Mono.just(i);
+                })
+                .flatMap(i -> {
+                    CapturedRecord record = inbound.get(i);
+                    long due = speed > 0 ? dueAt(record, firstTimestamp, startTime, speed) : System.nanoTime();
+                    return reactiveConsumer.replay(record.getSource(), record.getValue())
+                            .doOnError(e -> failures.incrementAndGet())
+                            .onErrorResume(e -> Mono.empty())
+                            .doFinally(signalType -> latencies[i] = System.nanoTime() - due);
+                }, concurrency)
+                .then(Mono.fromCallable(() -> report(speed, inbound, latencies, failures.get(), System.nanoTime() - startTime,
+                        expected, replaySink.drain(), ignorePattern.isEmpty() ? null : Pattern.compile(ignorePattern))));
+    }
+
+    private long dueAt(CapturedRecord record, long firstTimestamp, long startTime, double speed) {
+        if (speed <= 0) {
+            return startTime;
+        }
+        return startTime + (long) ((record.getTimestamp() - firstTimestamp) * 1000000L / speed);
+    }
+
+    /**
+     * @param latencies - Latency of each inbound record in nanoseconds
+     * @param ignore    - Removed from outputs before they are compared; may be null
+     */
+    static ReplayReport report(double speed, List<CapturedRecord> inbound, long[] latencies, int failures, long durationNanos,
+                               Map<String, List<CapturedRecord>> expected, Map<String, List<CapturedRecord>> actual, Pattern ignore) {
+        ReplayReport report = new ReplayReport();
+        report.setSpeed(speed);
+        report.setRecords(inbound.size());
+        report.setFailures(failures);
+        report.setDurationMs(durationNanos / 1000000);
+        report.setThroughputPerSecond(durationNanos == 0 ? 0 : inbound.size() * 1e9 / durationNanos);
+
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        report.setLatencyP50Ms(percentile(sorted, 0.50));
+        report.setLatencyP90Ms(percentile(sorted, 0.90));
+        report.setLatencyP99Ms(percentile(sorted, 0.99));
+        report.setLatencyMaxMs(sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+
+        for (CapturedRecord record : inbound) {
+            List<String> expectedValues = normalize(expected.get(record.getSource()), ignore);
+            List<String> actualValues = normalize(actual.get(record.getSource()), ignore);
+            report.setOutputs(report.getOutputs() + actualValues.size());
+
+            Map<String, Integer> remaining = new HashMap<>();
+            expectedValues.forEach(value -> remaining.merge(value, 1, Integer::sum));
+            int matching = 0;
+            for (String value : actualValues) {
+                Integer count = remaining.get(value);
+                if (count != null && count > 0) {
+                    remaining.put(value, count - 1);
+                    matching++;
+                }
+            }
+            int leftExpected = expectedValues.size() - matching;
+            int leftActual = actualValues.size() - matching;
+            int differing = Math.min(leftExpected, leftActual);
+            report.setMatchingOutputs(report.getMatchingOutputs() + matching);
+            report.setDifferingOutputs(report.getDifferingOutputs() + differing);
+            report.setMissingOutputs(report.getMissingOutputs() + leftExpected - differing);
+            report.setUnexpectedOutputs(report.getUnexpectedOutputs() + leftActual - differing);
+            if ((leftExpected > 0 || leftActual > 0) && report.getDifferingSources().size() < MAX_REPORTED_SOURCES) {
+                report.getDifferingSources().add(record.getSource());
+            }
+        }
+        return report;
+    }
+
+    private static List<String> normalize(List<CapturedRecord> records, Pattern ignore) {
+        if (records == null) {
+            return Collections.emptyList();
+        }
+        List<String> values = new ArrayList<>(records.size());
+        for (CapturedRecord record : records) {
+            String value = record.getTopic() + "|" + record.getKey() + "|" + record.getValue();
+            values.add(ignore == null ? value : ignore.matcher(value).replaceAll(""));
+        }
+        return values;
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+}
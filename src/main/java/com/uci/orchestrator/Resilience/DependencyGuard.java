@@ -0,0 +1,363 @@
+package com.uci.orchestrator.Resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Protects calls to one downstream dependency with a timeout, a bulkhead whose size adapts
+ * to observed latency (AIMD) and a count based circuit breaker with half-open probing.
+ *
+ * Calls that find the bulkhead full wait for a permit in a bounded queue (bounded both in
+ * length and in wait time), so load spikes are absorbed as back-pressure. Calls fail with
+ * {@link DependencyUnavailableException} when the circuit is open, the wait queue is exhausted
+ * or the call itself failed in a way that says nothing about the request (timeout, I/O error,
+ * 5xx or 429 response, transient data access error); callers must treat that as transient and
+ * retry rather than drop the work. Other errors are passed on unchanged.
+ */
+public class DependencyGuard {
+
+    public enum State {CLOSED, OPEN, HALF_OPEN}
+
+    @Getter
+    @Builder
+    public static class Settings {
+        @Builder.Default
+        private Duration timeout = Duration.ofSeconds(5);
+        @Builder.Default
+        private int minConcurrency = 4;
+        @Builder.Default
+        private int maxConcurrency = 64;
+        @Builder.Default
+        private Duration targetLatency = Duration.ofMillis(500);
+        @Builder.Default
+        private int windowSize = 50;
+        @Builder.Default
+        private int failureRateThreshold = 50;
+        @Builder.Default
+        private Duration openDuration = Duration.ofSeconds(10);
+        @Builder.Default
+        private int halfOpenProbes = 3;
+        @Builder.Default
+        private int maxQueued = 1000;
+        @Builder.Default
+        private Duration maxWait = Duration.ofSeconds(5);
+    }
+
+    private static final class Permit {
+        private final boolean probe;
+        private final long startTime = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(boolean probe) {
+            this.probe = probe;
+        }
+    }
+
+    /**
+     * A call waiting for a bulkhead permit. Exactly one of grant and cancel wins {@link #done};
+     * a permit granted to a waiter that was cancelled meanwhile is returned.
+     */
+    private static final class Waiter {
+        private final MonoSink<Permit> sink;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile Permit permit;
+
+        private Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+    }
+
+    @Getter
+    private final String name;
+    private final Settings settings;
+
+    private final Counter rejected;
+    private final Counter failures;
+    private final Counter timeouts;
+    private final Timer latency;
+
+    // All state below is guarded by this
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probesInFlight;
+    private int inFlight;
+    private int limit;
+    private int successesSinceIncrease;
+    private final boolean[] outcomes;
+    private int outcomeIndex;
+    private int outcomeCount;
+    private int failureCount;
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+
+    public DependencyGuard(String name, Settings settings, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.settings = settings;
+        this.limit = settings.getMaxConcurrency();
+        this.outcomes = new boolean[settings.getWindowSize()];
+
+        this.rejected = Counter.builder("orchestrator.dependency.rejected").tag("dependency", name).register(meterRegistry);
+        this.failures = Counter.builder("orchestrator.dependency.failures").tag("dependency", name).register(meterRegistry);
+        this.timeouts = Counter.builder("orchestrator.dependency.timeouts").tag("dependency", name).register(meterRegistry);
+        this.latency = Timer.builder("orchestrator.dependency.latency").tag("dependency", name).register(meterRegistry);
+        Gauge.builder("orchestrator.dependency.circuit.state", this, guard -> guard.getState().ordinal())
+                .tag("dependency", name).description("0 = closed, 1 = open, 2 = half open").register(meterRegistry);
+        Gauge.builder("orchestrator.dependency.concurrency.limit", this, DependencyGuard::getLimit)
+                .tag("dependency", name).register(meterRegistry);
+        Gauge.builder("orchestrator.dependency.in.flight", this, DependencyGuard::getInFlight)
+                .tag("dependency", name).register(meterRegistry);
+        Gauge.builder("orchestrator.dependency.queued", this, DependencyGuard::getQueued)
+                .tag("dependency", name).register(meterRegistry);
+    }
+
+    public <T> Mono<T> protect(Mono<T> call) {
+        return acquire().flatMap(permit -> call.timeout(settings.getTimeout())
+                    .doOnSuccess(value -> release(permit, true))
+                    .doOnError(e -> {
+                        if (e instanceof TimeoutException) {
+                            timeouts.increment();
+                        }
+                        failures.increment();
+                        release(permit, false);
+                    })
+                    .doOnCancel(() -> cancel(permit))
+                    .onErrorMap(DependencyGuard::isTransientFailure, e -> new DependencyUnavailableException(name, e.toString(), e)));
+    }
+
+    /**
+     * @return true if the error (or one of its causes) is a failure of the dependency rather
+     * than a rejection of the request
+     */
+    static boolean isTransientFailure(Throwable e) {
+        for (Throwable cause = Exceptions.unwrap(e); cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException
+                    || cause instanceof IOException
+                    || cause instanceof TransientDataAccessException
+                    || cause instanceof DataAccessResourceFailureException) {
+                return true;
+            }
+            if (cause instanceof WebClientResponseException) {
+                int status = ((WebClientResponseException) cause).getRawStatusCode();
+                return status >= 500 || status == 429;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return A permit, immediately if the bulkhead has room and otherwise once a running call
+     * releases one; fails if the circuit is open, the queue is full or the wait times out
+     */
+    private Mono<Permit> acquire() {
+        return Mono.<Permit>create(sink -> {
+            Waiter waiter = new Waiter(sink);
+            sink.onCancel(() -> {
+                if (waiter.done.compareAndSet(false, true)) {
+                    synchronized (this) {
+                        waiters.remove(waiter);
+                    }
+                } else if (waiter.permit != null) {
+                    // Granted, but the subscriber went away before the permit was delivered
+                    cancel(waiter.permit);
+                }
+            });
+            Permit permit;
+            String unavailable = null;
+            synchronized (this) {
+                permit = waiters.isEmpty() ? tryAcquire() : null;
+                if (permit == null) {
+                    if (state != State.CLOSED) {
+                        unavailable = "circuit " + getState();
+                    } else if (waiters.size() >= settings.getMaxQueued()) {
+                        unavailable = "concurrency limit reached";
+                    } else {
+                        waiters.add(waiter);
+                    }
+                }
+            }
+            if (permit != null) {
+                waiter.permit = permit;
+                if (waiter.done.compareAndSet(false, true)) {
+                    sink.success(permit);
+                } else {
+                    cancel(permit);
+                }
+            } else if (unavailable != null) {
+                rejected.increment();
+                sink.error(new DependencyUnavailableException(name, unavailable));
+            }
+        }).timeout(settings.getMaxWait())
+                .onErrorMap(TimeoutException.class, e -> {
+                    rejected.increment();
+                    return new DependencyUnavailableException(name, "no permit within " + settings.getMaxWait().toMillis() + " ms");
+                });
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= settings.getOpenDuration().toNanos()) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return waiters.size();
+    }
+
+    private synchronized Permit tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < settings.getOpenDuration().toNanos()) {
+                return null;
+            }
+            state = State.HALF_OPEN;
+            probesInFlight = 0;
+        }
+        boolean probe = state == State.HALF_OPEN;
+        if ((probe && probesInFlight >= settings.getHalfOpenProbes()) || inFlight >= limit) {
+            return null;
+        }
+        if (probe) {
+            probesInFlight++;
+        }
+        inFlight++;
+        return new Permit(probe);
+    }
+
+    private void release(Permit permit, boolean success) {
+        if (!permit.released.compareAndSet(false, true)) {
+            return;
+        }
+        long elapsed = System.nanoTime() - permit.startTime;
+        latency.record(elapsed, TimeUnit.NANOSECONDS);
+        synchronized (this) {
+            inFlight--;
+            adaptLimit(success, elapsed);
+            if (permit.probe) {
+                probesInFlight--;
+                if (state == State.HALF_OPEN) {
+                    if (success) {
+                        close();
+                    } else {
+                        open();
+                    }
+                }
+            } else if (state == State.CLOSED) {
+                recordOutcome(success);
+            }
+        }
+        grantWaiters();
+    }
+
+    private void cancel(Permit permit) {
+        if (!permit.released.compareAndSet(false, true)) {
+            return;
+        }
+        synchronized (this) {
+            inFlight--;
+            if (permit.probe) {
+                probesInFlight--;
+            }
+        }
+        grantWaiters();
+    }
+
+    /**
+     * Hand freed permits to queued calls in arrival order. If the circuit opened meanwhile,
+     * queued calls fail instead of waiting for it to close.
+     */
+    private void grantWaiters() {
+        while (true) {
+            Waiter waiter;
+            synchronized (this) {
+                waiter = waiters.peek();
+                if (waiter == null) {
+                    return;
+                }
+                if (state == State.CLOSED) {
+                    Permit permit = tryAcquire();
+                    if (permit == null) {
+                        return;
+                    }
+                    waiter.permit = permit;
+                }
+                waiters.poll();
+            }
+            if (waiter.permit == null) {
+                if (waiter.done.compareAndSet(false, true)) {
+                    rejected.increment();
+                    waiter.sink.error(new DependencyUnavailableException(name, "circuit " + getState()));
+                }
+            } else if (waiter.done.compareAndSet(false, true)) {
+                waiter.sink.success(waiter.permit);
+            } else {
+                cancel(waiter.permit);
+            }
+        }
+    }
+
+    private void adaptLimit(boolean success, long elapsedNanos) {
+        if (!success || elapsedNanos > settings.getTargetLatency().toNanos()) {
+            limit = Math.max(settings.getMinConcurrency(), (int) (limit * 0.9));
+            successesSinceIncrease = 0;
+        } else if (++successesSinceIncrease >= limit) {
+            limit = Math.min(settings.getMaxConcurrency(), limit + 1);
+            successesSinceIncrease = 0;
+        }
+    }
+
+    private void recordOutcome(boolean success) {
+        if (outcomeCount == outcomes.length) {
+            if (!outcomes[outcomeIndex]) {
+                failureCount--;
+            }
+        } else {
+            outcomeCount++;
+        }
+        outcomes[outcomeIndex] = success;
+        if (!success) {
+            failureCount++;
+        }
+        outcomeIndex = (outcomeIndex + 1) % outcomes.length;
+
+        if (outcomeCount >= Math.max(1, outcomes.length / 2)
+                && failureCount * 100 >= settings.getFailureRateThreshold() * outcomeCount) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        outcomeIndex = 0;
+        outcomeCount = 0;
+        failureCount = 0;
+    }
+}
@@ -0,0 +1,55 @@
+package com.uci.orchestrator.Resilience;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link DependencyGuard} per downstream dependency. Settings are read from
+ * orchestrator.resilience.&lt;dependency&gt;.* and fall back to orchestrator.resilience.default.*
+ */
+@Component
+public class DependencyGuards {
+
+    public static final String BOT_SERVICE = "bot-service";
+    public static final String CAMPAIGN_SERVICE = "campaign-service";
+    public static final String FUSIONAUTH = "fusionauth";
+    public static final String CASSANDRA = "cassandra";
+
+    private final Map<String, DependencyGuard> guards = new ConcurrentHashMap<>();
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    public DependencyGuard get(String dependency) {
+        return guards.computeIfAbsent(dependency, name -> new DependencyGuard(name, settings(name), meterRegistry));
+    }
+
+    private DependencyGuard.Settings settings(String dependency) {
+        return DependencyGuard.Settings.builder()
+                .timeout(Duration.ofMillis(property(dependency, "timeout-ms", 5000)))
+                .minConcurrency((int) property(dependency, "min-concurrency", 4))
+                .maxConcurrency((int) property(dependency, "max-concurrency", 64))
+                .targetLatency(Duration.ofMillis(property(dependency, "target-latency-ms", 500)))
+                .windowSize((int) property(dependency, "window-size", 50))
+                .failureRateThreshold((int) property(dependency, "failure-rate-threshold", 50))
+                .openDuration(Duration.ofMillis(property(dependency, "open-duration-ms", 10000)))
+                .halfOpenProbes((int) property(dependency, "half-open-probes", 3))
+                .maxQueued((int) property(dependency, "max-queued", 1000))
+                .maxWait(Duration.ofMillis(property(dependency, "max-wait-ms", 5000)))
+                .build();
+    }
+
+    private long property(String dependency, String key, long defaultValue) {
+        Long fallback = environment.getProperty("orchestrator.resilience.default." + key, Long.class, defaultValue);
+        return environment.getProperty("orchestrator.resilience." + dependency + "." + key, Long.class, fallback);
+    }
+}
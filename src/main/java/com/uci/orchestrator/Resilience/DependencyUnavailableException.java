@@ -0,0 +1,17 @@
+package com.uci.orchestrator.Resilience;
+
+/**
+ * Thrown instead of calling a downstream dependency whose circuit is open or whose
+ * concurrency limit is exhausted, or when a call failed because of the dependency (not
+ * because of the request).
+ */
+public class DependencyUnavailableException extends RuntimeException {
+
+    public DependencyUnavailableException(String dependency, String reason) {
+        super("Dependency " + dependency + " unavailable: " + reason, null, false, false);
+    }
+
+    public DependencyUnavailableException(String dependency, String reason, Throwable cause) {
+        super("Dependency " + dependency + " unavailable: " + reason, cause, false, false);
+    }
+}
@@ -0,0 +1,176 @@
+package com.uci.orchestrator.Snapshot;
+
+import com.uci.orchestrator.Cache.TieredCache;
+import com.uci.orchestrator.Cache.TieredCaches;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Periodically snapshots the orchestrator's hot in-memory state (resolved users, bot adapter
+ * mappings) to a local file, and restores it on startup, before the inbound consumer subscribes,
+ * so a fresh deploy does not start cold.
+ *
+ * Format (gzip compressed): magic, version, creation time, then for each cache its name and
+ * (key, value, expiry) entries.
+ */
+@Slf4j
+@Component
+public class StateSnapshotter {
+
+    private static final int MAGIC = 0x4F534E50;
+    private static final int VERSION = 2;
+
+    private static final class CachedEntry {
+        private final String key;
+        private final String value;
+        private final long expiresAt;
+
+        private CachedEntry(String key, String value, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    @Autowired
+    private TieredCaches tieredCaches;
+
+    @Value("${orchestrator.snapshot.enabled:false}")
+    private boolean enabled;
+
+    @Value("${orchestrator.snapshot.path:orchestrator-snapshot.bin}")
+    private String path;
+
+    @Value("${orchestrator.snapshot.interval-ms:60000}")
+    private long intervalMs;
+
+    @Value("${orchestrator.snapshot.max-age-ms:3600000}")
+    private long maxAgeMs;
+
+    private Disposable periodicSnapshot;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        restore(Paths.get(path));
+        periodicSnapshot = Flux.interval(Duration.ofMillis(intervalMs), Duration.ofMillis(intervalMs), Schedulers.boundedElastic())
+                .subscribe(tick -> snapshot());
+    }
+
+    /**
+     * Stop the periodic snapshots and write a final one; only the first call writes.
+     */
+    public synchronized void shutdown() {
+        if (periodicSnapshot != null) {
+            periodicSnapshot.dispose();
+            periodicSnapshot = null;
+            snapshot();
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        shutdown();
+    }
+
+    public synchronized void snapshot() {
+        if (!enabled) {
+            return;
+        }
+        long startTime = System.nanoTime();
+        try {
+            write(Paths.get(path));
+            log.info("State snapshot written in {} ms", (System.nanoTime() - startTime) / 1000000);
+        } catch (IOException e) {
+            log.error("Error writing state snapshot: " + e.getMessage());
+        }
+    }
+
+    void write(Path target) throws IOException {
+        if (target.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(target.toAbsolutePath().getParent());
+        }
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temp))))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+
+            out.writeInt(tieredCaches.all().size());
+            for (TieredCache cache : tieredCaches.all()) {
+                out.writeUTF(cache.getName());
+                // Copy under the cache's lock and serialize after releasing it, so lookups are not
+                // blocked while the snapshot is compressed and written
+                List<CachedEntry> entries = new ArrayList<>(cache.getLocal().size());
+                cache.getLocal().forEach((key, value, expiresAt) -> entries.add(new CachedEntry(key, value, expiresAt)));
+                for (CachedEntry entry : entries) {
+                    out.writeBoolean(true);
+                    out.writeUTF(entry.key);
+                    out.writeUTF(entry.value);
+                    out.writeLong(entry.expiresAt);
+                }
+                out.writeBoolean(false);
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Restore a snapshot if it exists, has the current version and is younger than the maximum age.
+     */
+    void restore(Path source) {
+        if (!Files.exists(source)) {
+            log.info("No state snapshot at {}, starting cold", source);
+            return;
+        }
+        long startTime = System.nanoTime();
+        int restored = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(source))))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                log.warn("Ignoring state snapshot {} with unknown format or version", source);
+                return;
+            }
+            long age = System.currentTimeMillis() - in.readLong();
+            if (age > maxAgeMs) {
+                log.warn("Ignoring state snapshot {}, {} ms old", source, age);
+                return;
+            }
+
+            int caches = in.readInt();
+            for (int i = 0; i < caches; i++) {
+                TieredCache cache = tieredCaches.get(in.readUTF());
+                while (in.readBoolean()) {
+                    cache.getLocal().restore(in.readUTF(), in.readUTF(), in.readLong());
+                    restored++;
+                }
+            }
+            log.info("Restored {} entries from state snapshot in {} ms", restored, (System.nanoTime() - startTime) / 1000000);
+        } catch (IOException e) {
+            log.error("Error restoring state snapshot, starting cold: " + e.getMessage());
+        }
+    }
+}
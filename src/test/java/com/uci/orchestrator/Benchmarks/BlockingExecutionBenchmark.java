@@ -0,0 +1,69 @@
+package com.uci.orchestrator.Benchmarks;
+
+import com.uci.orchestrator.Execution.BlockingExecution;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of a batch of messages whose pipeline contains one blocking call (simulated
+ * FusionAuth / producer latency) for each execution mode. Messages are emitted on a small
+ * parallel scheduler standing in for the Kafka/Netty event loops.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.uci.orchestrator.Benchmarks.BlockingExecutionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class BlockingExecutionBenchmark {
+
+    private static final int MESSAGES = 512;
+    private static final int CONCURRENCY = 256;
+
+    @Param({"REACTIVE", "BOUNDED_ELASTIC", "VIRTUAL_THREADS"})
+    public String mode;
+
+    @Param({"5"})
+    public long blockingMillis;
+
+    private BlockingExecution blockingExecution;
+    private Scheduler eventLoop;
+
+    @Setup
+    public void setup() {
+        blockingExecution = new BlockingExecution(BlockingExecution.Mode.valueOf(mode), 256, 100000);
+        eventLoop = Schedulers.newParallel("benchmark-event-loop", 4);
+    }
+
+    @TearDown
+    public void tearDown() {
+        blockingExecution.close();
+        eventLoop.dispose();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public Long pipeline() {
+        return Flux.range(0, MESSAGES)
+                .publishOn(eventLoop)
+                .flatMap(i -> blockingExecution.fromCallable(() -> {
+                    Thread.sleep(blockingMillis);
+                    return i;
+                }), CONCURRENCY)
+                .count()
+                .block();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(BlockingExecutionBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,84 @@
+package com.uci.orchestrator.Benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.uci.orchestrator.Campaign.CampaignDefinition;
+import com.uci.orchestrator.Campaign.CampaignDefinitionReader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per campaign cost of extracting name, adapter and user segment from the tree CampaignService
+ * returns: the previous findValues search (with its per message ObjectMapper) against the
+ * targeted reader. findValues searches every field except the logic blocks it matches, so
+ * the user segments grow with the parameter as well.
+ *
+ * Run with the GC profiler to compare allocation per campaign (gc.alloc.rate.norm):
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.uci.orchestrator.Benchmarks.CampaignDefinitionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CampaignDefinitionBenchmark {
+
+    @Param({"1", "50", "500"})
+    public int blocks;
+
+    private JsonNode response;
+
+    @Setup
+    public void setup() throws Exception {
+        ObjectMapper mapper = CampaignDefinitionReader.MAPPER;
+        ObjectNode data = mapper.createObjectNode();
+        data.put("id", "campaign");
+        ArrayNode logic = data.putArray("logic");
+        for (int i = 0; i < blocks; i++) {
+            ObjectNode block = logic.addObject();
+            block.put("id", "logic-" + i);
+            ObjectNode transformer = block.putArray("transformers").addObject();
+            transformer.put("id", "transformer-" + i);
+            transformer.putObject("meta").put("form", "https://forms.example.org/" + i).put("formID", "form-" + i);
+            block.putObject("adapter").put("channel", "WhatsApp").put("provider", "gupshup").put("id", "adapter-" + i);
+        }
+        ArrayNode segments = data.putArray("userSegments");
+        for (int i = 0; i < blocks; i++) {
+            segments.addObject().put("name", "segment-" + i).putObject("all").put("type", "get");
+        }
+        data.put("name", "Campaign");
+        response = mapper.createObjectNode().set("data", data);
+    }
+
+    @Benchmark
+    public void treeFindValues(Blackhole blackhole) {
+        JsonNode campaignDetails = response.get("data");
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode adapter = campaignDetails.findValues("logic").get(0).get(0).get("adapter");
+        blackhole.consume(mapper);
+        blackhole.consume(((ArrayNode) campaignDetails.get("userSegments")).get(0).get("name").asText());
+        blackhole.consume(campaignDetails.get("name").asText());
+        blackhole.consume(adapter.get("channel").asText());
+        blackhole.consume(adapter.get("provider").asText());
+    }
+
+    @Benchmark
+    public CampaignDefinition targetedReader() throws Exception {
+        return CampaignDefinitionReader.fromResponse(response);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(CampaignDefinitionBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
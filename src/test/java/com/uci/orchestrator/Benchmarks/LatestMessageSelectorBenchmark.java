@@ -0,0 +1,103 @@
+package com.uci.orchestrator.Benchmarks;
+
+import com.uci.dao.models.XMessageDAO;
+import com.uci.orchestrator.History.LatestMessageSelector;
+import messagerosa.core.model.XMessage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Latest SENT/REPLIED message lookup: the previous collect, filter-copy and sort code (kept
+ * verbatim, including its wrong result) against the single pass selector, over a Flux as the
+ * repository returns it.
+ *
+ * Run with the GC profiler to compare allocation per lookup (gc.alloc.rate.norm):
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.uci.orchestrator.Benchmarks.LatestMessageSelectorBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LatestMessageSelectorBenchmark {
+
+    private static final XMessage.MessageState[] STATES = {
+            XMessage.MessageState.SENT, XMessage.MessageState.DELIVERED, XMessage.MessageState.REPLIED, XMessage.MessageState.READ
+    };
+
+    @Param({"10", "100", "1000"})
+    public int messages;
+
+    private List<XMessageDAO> history;
+
+    @Setup
+    public void setup() {
+        history = new ArrayList<>(messages);
+        LocalDateTime start = LocalDateTime.now().minusHours(12);
+        for (int i = 0; i < messages; i++) {
+            XMessageDAO message = new XMessageDAO();
+            message.setMessageState(STATES[i % STATES.length].name());
+            message.setTimestamp(start.plusSeconds((i * 7919L) % (messages * 10L)));
+            history.add(message);
+        }
+    }
+
+    /**
+     * The previous getLatestXMessage, unchanged: it filtered and sorted a copy, then returned the
+     * first element of the unfiltered list.
+     */
+    @Benchmark
+    public XMessageDAO collectFilterSort() {
+        return Flux.fromIterable(history).collectList().map(new Function<List<XMessageDAO>, XMessageDAO>() {
+            @Override
+            public XMessageDAO apply(List<XMessageDAO> xMessageDAOS) {
+                if (xMessageDAOS.size() > 0) {
+                    List<XMessageDAO> filteredList = new ArrayList<>();
+                    for (XMessageDAO xMessageDAO : xMessageDAOS) {
+                        if (xMessageDAO.getMessageState().equals(XMessage.MessageState.SENT.name()) ||
+                                xMessageDAO.getMessageState().equals(XMessage.MessageState.REPLIED.name()) )
+                            filteredList.add(xMessageDAO);
+                    }
+                    if (filteredList.size() > 0) {
+                        filteredList.sort(new Comparator<XMessageDAO>() {
+                            @Override
+                            public int compare(XMessageDAO o1, XMessageDAO o2) {
+                                return o1.getTimestamp().compareTo(o2.getTimestamp());
+                            }
+                        });
+                    }
+                    return xMessageDAOS.get(0);
+                }
+                return new XMessageDAO();
+            }
+        }).block();
+    }
+
+    @Benchmark
+    public XMessageDAO singlePassSelector() {
+        return LatestMessageSelector.SENT_OR_REPLIED.select(Flux.fromIterable(history)).block();
+    }
+
+    @Benchmark
+    public XMessageDAO singlePassSelectorOverList() {
+        return LatestMessageSelector.SENT_OR_REPLIED.select(history);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(LatestMessageSelectorBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
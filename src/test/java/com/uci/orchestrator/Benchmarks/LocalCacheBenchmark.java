@@ -0,0 +1,70 @@
+package com.uci.orchestrator.Benchmarks;
+
+import com.uci.orchestrator.Cache.HeapLocalCache;
+import com.uci.orchestrator.Cache.LocalCache;
+import com.uci.orchestrator.Cache.OffHeapLocalCache;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * fusionauth-user style lookups (encrypted device ID to itself) in a full local cache tier
+ * held on heap versus off heap. Run with the GC profiler, which reports allocation rate, GC
+ * count and GC time, and compare the heap used after setup (printed per trial).
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.uci.orchestrator.Benchmarks.LocalCacheBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-XX:MaxDirectMemorySize=1g"})
+public class LocalCacheBenchmark {
+
+    @Param({"heap", "off-heap"})
+    public String tier;
+
+    @Param({"500000"})
+    public int users;
+
+    private LocalCache cache;
+    private String[] deviceIDs;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        cache = tier.equals("heap") ? new HeapLocalCache(users, 3600000) : new OffHeapLocalCache(users, 3600000, 64, 64);
+        deviceIDs = new String[users];
+        for (int i = 0; i < users; i++) {
+            // Same length as a base64 encoded AES block pair
+            deviceIDs[i] = String.format("%043d=", 7000000000L + i);
+            cache.put(deviceIDs[i], deviceIDs[i]);
+        }
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        System.out.println("Heap used after setup (" + tier + "): " + (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024) + " MB");
+    }
+
+    @Benchmark
+    public String lookup() {
+        return cache.get(deviceIDs[ThreadLocalRandom.current().nextInt(users)]);
+    }
+
+    @Benchmark
+    public String refresh() {
+        String deviceID = deviceIDs[ThreadLocalRandom.current().nextInt(users)];
+        cache.put(deviceID, deviceID);
+        return deviceID;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(LocalCacheBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,69 @@
+package com.uci.orchestrator.Benchmarks;
+
+import com.uci.orchestrator.Dispatch.MessageRoute;
+import com.uci.orchestrator.Dispatch.MessageTypeHandler;
+import com.uci.orchestrator.Dispatch.MessageTypeRegistry;
+import com.uci.orchestrator.Dispatch.ReplyMessageHandler;
+import messagerosa.core.model.XMessage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per message dispatch on message type and state: the previous toString/equalsIgnoreCase and
+ * equals chains against the EnumMap backed registry, over all message types.
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.uci.orchestrator.Benchmarks.MessageTypeDispatchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageTypeDispatchBenchmark {
+
+    private static final XMessage.MessageType[] TYPES = XMessage.MessageType.values();
+    private static final XMessage.MessageState[] STATES = XMessage.MessageState.values();
+
+    private MessageTypeRegistry registry;
+    private int next;
+
+    @Setup
+    public void setup() {
+        registry = new MessageTypeRegistry(Collections.<MessageTypeHandler>singletonList(new ReplyMessageHandler()));
+    }
+
+    @Benchmark
+    public void stringBranching(Blackhole blackhole) {
+        int i = next++ & Integer.MAX_VALUE;
+        XMessage.MessageType type = TYPES[i % TYPES.length];
+        XMessage.MessageState state = STATES[i % STATES.length];
+        if (type.toString().equalsIgnoreCase("text")) {
+            blackhole.consume(1);
+        } else if (type.toString().equalsIgnoreCase("button")) {
+            blackhole.consume(2);
+        }
+        blackhole.consume(state.equals(XMessage.MessageState.REPLIED) || state.equals(XMessage.MessageState.OPTED_IN));
+    }
+
+    @Benchmark
+    public void registryLookup(Blackhole blackhole) {
+        int i = next++ & Integer.MAX_VALUE;
+        XMessage.MessageType type = TYPES[i % TYPES.length];
+        XMessage.MessageState state = STATES[i % STATES.length];
+        blackhole.consume(registry.handler(type));
+        blackhole.consume(MessageRoute.forState(state) == MessageRoute.TRANSFORMER);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(MessageTypeDispatchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
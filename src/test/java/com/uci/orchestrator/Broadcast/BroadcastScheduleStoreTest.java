@@ -0,0 +1,30 @@
+package com.uci.orchestrator.Broadcast;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BroadcastScheduleStoreTest {
+
+    @Test
+    public void testFailedReleaseIsKeptForRetryAcrossRestarts() throws Exception {
+        Path file = Files.createTempFile("broadcasts", ".jsonl");
+        BroadcastScheduleStore store = new BroadcastScheduleStore(file);
+        BroadcastSchedule schedule = new BroadcastSchedule("1", "campaign", 1000);
+        store.add(schedule);
+        store.recordFailure(schedule, "campaign service returned 500", 5000, false);
+
+        BroadcastSchedule reloaded = new BroadcastScheduleStore(file).pending().iterator().next();
+        assertEquals(BroadcastSchedule.Status.PENDING, reloaded.getStatus());
+        assertEquals(1, reloaded.getAttempts());
+        assertEquals("campaign service returned 500", reloaded.getLastError());
+        assertEquals(5000, reloaded.getNextAttemptAt());
+
+        store.recordFailure(schedule, "send failed", 9000, true);
+        assertEquals(BroadcastSchedule.Status.FAILED, new BroadcastScheduleStore(file).pending().iterator().next().getStatus());
+        Files.deleteIfExists(file);
+    }
+}
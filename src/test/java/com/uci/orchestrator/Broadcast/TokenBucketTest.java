@@ -0,0 +1,19 @@
+package com.uci.orchestrator.Broadcast;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    @Test
+    public void testBurstThenPaced() {
+        TokenBucket bucket = new TokenBucket(10, 2);
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+
+        long wait = bucket.reserve();
+        assertTrue(wait > 50_000_000L && wait <= 100_000_000L, "third token should wait about 100ms, was " + wait);
+        assertTrue(bucket.reserve() > wait);
+    }
+}
@@ -0,0 +1,41 @@
+package com.uci.orchestrator.Cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheInvalidationBusTest {
+
+    @Test
+    public void testInvalidationFromAnotherInstanceDropsLocalEntry() {
+        TieredCache cache = new TieredCache(TieredCaches.BOT_ADAPTER, 10, Duration.ofMinutes(1), null, new SimpleMeterRegistry());
+        CacheInvalidationBus bus = new CacheInvalidationBus();
+        bus.onInvalidation((cacheName, key) -> {
+            if (cacheName.equals(cache.getName())) {
+                cache.invalidateLocal(key);
+            }
+        });
+        cache.get("app", () -> Mono.just("adapter-1")).block();
+
+        // Published by this instance: already evicted locally, so ignored
+        bus.receive("bot-adapter:app", bus.getInstanceID());
+        assertEquals(1, cache.getLocal().size());
+
+        bus.receive("bot-adapter:app", "other-instance");
+        assertEquals(0, cache.getLocal().size());
+        assertEquals("adapter-2", cache.get("app", () -> Mono.just("adapter-2")).block());
+    }
+
+    @Test
+    public void testMalformedKeysAreIgnored() {
+        CacheInvalidationBus bus = new CacheInvalidationBus();
+        bus.onInvalidation((cacheName, key) -> fail("unexpected invalidation of " + cacheName + ":" + key));
+        bus.receive(null, "other-instance");
+        bus.receive("no-separator", "other-instance");
+        bus.receive(":key", "other-instance");
+    }
+}
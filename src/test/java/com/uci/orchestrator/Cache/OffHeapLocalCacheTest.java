@@ -0,0 +1,88 @@
+package com.uci.orchestrator.Cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapLocalCacheTest {
+
+    @Test
+    public void testPutGetAndInvalidate() {
+        OffHeapLocalCache cache = new OffHeapLocalCache(1000, 60000, 32, 32);
+        for (int i = 0; i < 1000; i++) {
+            cache.put("user-" + i, "device-" + i);
+        }
+        assertEquals(1000, cache.size());
+        // Removing every other key shifts the rest of their probe runs back; all must stay reachable
+        for (int i = 0; i < 1000; i += 2) {
+            cache.invalidate("user-" + i);
+        }
+        assertEquals(500, cache.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i % 2 == 0 ? null : "device-" + i, cache.get("user-" + i));
+        }
+        cache.put("user-1", "replaced");
+        assertEquals("replaced", cache.get("user-1"));
+        assertEquals(500, cache.size());
+    }
+
+    @Test
+    public void testEvictsUnreferencedEntriesWhenFull() {
+        OffHeapLocalCache cache = new OffHeapLocalCache(3, 60000, 16, 16);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("c", "3");
+        cache.put("d", "4");
+        assertEquals(3, cache.size());
+        assertEquals("4", cache.get("d"));
+    }
+
+    @Test
+    public void testExpiredEntriesAreNotReturned() throws Exception {
+        OffHeapLocalCache cache = new OffHeapLocalCache(10, 20, 16, 16);
+        cache.put("a", "1");
+        Thread.sleep(50);
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testEntriesTooLongAreNotCached() {
+        OffHeapLocalCache cache = new OffHeapLocalCache(10, 60000, 4, 4);
+        cache.put("key", "1");
+        cache.put("key", "too long");
+        cache.put("too long", "1");
+        assertNull(cache.get("key"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testForEachAndRestore() {
+        OffHeapLocalCache cache = new OffHeapLocalCache(10, 60000, 16, 16);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        Map<String, String> visited = new HashMap<>();
+        cache.forEach((key, value, expiresAt) -> visited.put(key, value));
+        assertEquals(2, visited.size());
+        assertEquals("2", visited.get("b"));
+
+        long expiresAt = System.currentTimeMillis() + 60000;
+        cache.restore("a", "stale", expiresAt);
+        cache.restore("c", "3", expiresAt);
+        assertEquals("1", cache.get("a"));
+        assertEquals("3", cache.get("c"));
+    }
+
+    @Test
+    public void testBoundCannotGrowPastAllocation() {
+        OffHeapLocalCache cache = new OffHeapLocalCache(3, 60000, 16, 16);
+        assertThrows(IllegalArgumentException.class, () -> cache.setMaxSize(4));
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.setMaxSize(1);
+        assertEquals(1, cache.size());
+    }
+}
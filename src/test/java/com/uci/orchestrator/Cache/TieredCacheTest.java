@@ -0,0 +1,65 @@
+package com.uci.orchestrator.Cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieredCacheTest {
+
+    @Test
+    public void testLoadsOnceAndServesFromLocalTier() {
+        TieredCache cache = new TieredCache("bot-adapter", 10, Duration.ofMinutes(1), null, new SimpleMeterRegistry());
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            assertEquals("adapter-1", cache.get("app", () -> Mono.fromSupplier(() -> {
+                loads.incrementAndGet();
+                return "adapter-1";
+            })).block());
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testSharedTierFillsAnotherInstance() {
+        InMemorySharedCacheTier shared = new InMemorySharedCacheTier();
+        TieredCache first = new TieredCache("bot-adapter", 10, Duration.ofMinutes(1), shared, new SimpleMeterRegistry());
+        TieredCache second = new TieredCache("bot-adapter", 10, Duration.ofMinutes(1), shared, new SimpleMeterRegistry());
+
+        first.get("app", () -> Mono.just("adapter-1")).block();
+        assertEquals("adapter-1", second.get("app", () -> Mono.error(new IllegalStateException("not expected"))).block());
+    }
+
+    @Test
+    public void testInvalidatedEntryIsReloaded() {
+        TieredCache cache = new TieredCache("fusionauth-user", 10, Duration.ofMinutes(1), null, new SimpleMeterRegistry());
+        cache.get("device", () -> Mono.just("v1")).block();
+        cache.invalidateLocal("device");
+        assertEquals("v2", cache.get("device", () -> Mono.just("v2")).block());
+    }
+
+    @Test
+    public void testEmptyValuesAreNotCached() {
+        TieredCache cache = new TieredCache("fusionauth-user", 10, Duration.ofMinutes(1), null, new SimpleMeterRegistry());
+        cache.get("device", () -> Mono.just("")).block();
+        assertEquals(0, cache.getLocal().size());
+    }
+
+    @Test
+    public void testShrinkingEvictsLeastRecentlyUsed() {
+        LocalCache cache = new HeapLocalCache(3, 60000);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("c", "3");
+        cache.get("a");
+
+        cache.setMaxSize(2);
+        assertEquals(2, cache.size());
+        assertNull(cache.get("b"));
+        assertEquals("1", cache.get("a"));
+    }
+}
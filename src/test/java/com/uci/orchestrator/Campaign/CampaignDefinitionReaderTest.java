@@ -0,0 +1,38 @@
+package com.uci.orchestrator.Campaign;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CampaignDefinitionReaderTest {
+
+    private static final String CAMPAIGN = "{\"data\": {" +
+            "\"id\": \"c1\", \"startingMessage\": \"Hi\", \"status\": \"enabled\"," +
+            "\"users\": [\"u1\", \"u2\"]," +
+            "\"logic\": [" +
+            "  {\"id\": \"l1\", \"transformers\": [{\"meta\": {\"form\": \"f1\", \"logic\": [1, 2]}}]," +
+            "   \"adapter\": {\"channel\": \"WhatsApp\", \"provider\": \"gupshup\", \"config\": {\"2WAY\": true}}}," +
+            "  {\"id\": \"l2\", \"adapter\": {\"channel\": \"SMS\", \"provider\": \"cdac\"}}" +
+            "]," +
+            "\"userSegments\": [{\"id\": \"s1\", \"all\": {\"type\": \"get\"}, \"name\": \"Teachers\"}, {\"name\": \"Parents\"}]," +
+            "\"name\": \"Attendance Bot\"}}";
+
+    @Test
+    public void testReadsFirstLogicAdapterAndUserSegment() throws Exception {
+        CampaignDefinition campaign = CampaignDefinitionReader.fromResponse(CampaignDefinitionReader.MAPPER.readTree(CAMPAIGN));
+
+        assertEquals("Attendance Bot", campaign.getName());
+        assertEquals("WhatsApp", campaign.getAdapter().getChannel());
+        assertEquals("gupshup", campaign.getAdapter().getProvider());
+        assertEquals("Teachers", campaign.getUserSegment());
+    }
+
+    @Test
+    public void testIncompleteCampaignIsRejected() {
+        assertThrows(JsonMappingException.class, () -> CampaignDefinitionReader.fromResponse(
+                CampaignDefinitionReader.MAPPER.readTree("{\"data\": {\"name\": \"Bot\", \"logic\": [], \"userSegments\": []}}")));
+        assertThrows(JsonMappingException.class, () -> CampaignDefinitionReader.fromResponse(
+                CampaignDefinitionReader.MAPPER.readTree("{\"error\": \"not found\"}")));
+    }
+}
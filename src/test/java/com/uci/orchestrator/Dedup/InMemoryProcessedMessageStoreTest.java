@@ -0,0 +1,71 @@
+package com.uci.orchestrator.Dedup;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryProcessedMessageStoreTest {
+
+    @Test
+    public void testRemembersProcessedKeys() {
+        InMemoryProcessedMessageStore store = new InMemoryProcessedMessageStore(60000, 10);
+        store.add("inbound-0@1");
+        assertTrue(store.contains("inbound-0@1"));
+        assertFalse(store.contains("inbound-0@2"));
+    }
+
+    @Test
+    public void testEvictsOldestBeyondMaxEntries() {
+        InMemoryProcessedMessageStore store = new InMemoryProcessedMessageStore(60000, 2);
+        store.add("inbound-0@1");
+        store.add("inbound-0@2");
+        store.add("inbound-0@3");
+        assertEquals(2, store.size());
+        assertFalse(store.contains("inbound-0@1"));
+        assertTrue(store.contains("inbound-0@3"));
+    }
+
+    @Test
+    public void testReloadsPersistedKeys() throws Exception {
+        Path file = Files.createTempFile("dedup", ".log");
+        InMemoryProcessedMessageStore store = new InMemoryProcessedMessageStore(60000, 10, file);
+        store.add("inbound-1@42");
+        store.close();
+
+        InMemoryProcessedMessageStore reloaded = new InMemoryProcessedMessageStore(60000, 10, file);
+        assertTrue(reloaded.contains("inbound-1@42"));
+        reloaded.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testCompactsPersistedKeysOnceTheWindowPassed() throws Exception {
+        Path file = Files.createTempFile("dedup", ".log");
+        InMemoryProcessedMessageStore store = new InMemoryProcessedMessageStore(100, 10, file, 60000);
+        store.add("inbound-1@1");
+        store.add("inbound-1@2");
+        store.persist();
+        assertEquals(2, Files.readAllLines(file).size());
+
+        Thread.sleep(150);
+        store.add("inbound-1@3");
+        store.persist();
+        assertEquals(Collections.singletonList("inbound-1@3"), keys(file));
+        store.close();
+        Files.deleteIfExists(file);
+    }
+
+    private List<String> keys(Path file) throws Exception {
+        List<String> keys = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            keys.add(line.substring(0, line.lastIndexOf(',')));
+        }
+        return keys;
+    }
+}
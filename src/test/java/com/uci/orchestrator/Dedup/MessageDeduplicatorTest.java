@@ -0,0 +1,38 @@
+package com.uci.orchestrator.Dedup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import reactor.kafka.receiver.ReceiverRecord;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageDeduplicatorTest {
+
+    @Test
+    public void testSkipsRecordRedeliveredToSameInstance() {
+        MessageDeduplicator deduplicator = new MessageDeduplicator(new InMemoryProcessedMessageStore(60000, 10), new SimpleMeterRegistry());
+        String key = MessageDeduplicator.key(record(3, 42));
+        assertFalse(deduplicator.isDuplicate(key));
+        deduplicator.markProcessed(key);
+
+        // Same record fetched again, e.g. after its offset commit failed
+        assertTrue(deduplicator.isDuplicate(MessageDeduplicator.key(record(3, 42))));
+        assertFalse(deduplicator.isDuplicate(MessageDeduplicator.key(record(3, 43))));
+        assertFalse(deduplicator.isDuplicate(MessageDeduplicator.key(record(4, 42))));
+        assertEquals(1, deduplicator.duplicatesSuppressed());
+    }
+
+    @Test
+    public void testRecordIsNotSkippedUntilProcessed() {
+        MessageDeduplicator deduplicator = new MessageDeduplicator(new InMemoryProcessedMessageStore(60000, 10), new SimpleMeterRegistry());
+        String key = MessageDeduplicator.key(record(0, 7));
+        assertFalse(deduplicator.isDuplicate(key));
+        assertFalse(deduplicator.isDuplicate(key));
+        assertEquals(0, deduplicator.duplicatesSuppressed());
+    }
+
+    private ReceiverRecord<String, String> record(int partition, long offset) {
+        return new ReceiverRecord<>(new ConsumerRecord<>("inbound", partition, offset, "user", "message"), null);
+    }
+}
@@ -0,0 +1,80 @@
+package com.uci.orchestrator.Dispatch;
+
+import com.uci.dao.models.XMessageDAO;
+import messagerosa.core.model.SenderReceiverInfo;
+import messagerosa.core.model.XMessage;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageTypeRegistryTest {
+
+    private final MessageTypeRegistry registry = new MessageTypeRegistry(Collections.singletonList(new ReplyMessageHandler()));
+
+    private XMessage message(XMessage.MessageType type, XMessage.MessageState state) {
+        return XMessage.builder()
+                .messageType(type)
+                .messageState(state)
+                .from(SenderReceiverInfo.builder().userID("user").build())
+                .build();
+    }
+
+    @Test
+    public void testResolvesHandlersByType() {
+        assertTrue(registry.handler(XMessage.MessageType.TEXT) instanceof ReplyMessageHandler);
+        assertTrue(registry.handler(XMessage.MessageType.BUTTON) instanceof ReplyMessageHandler);
+        assertSame(MessageTypeRegistry.UNHANDLED, registry.handler(XMessage.MessageType.BROADCAST_TEXT));
+        assertSame(MessageTypeRegistry.UNHANDLED, registry.handler(null));
+    }
+
+    @Test
+    public void testFirstRegistrationWins() {
+        MessageTypeHandler first = new ReplyMessageHandler();
+        MessageTypeHandler second = new MessageTypeHandler() {
+            @Override
+            public Collection<XMessage.MessageType> types() {
+                return Collections.singletonList(XMessage.MessageType.TEXT);
+            }
+
+            @Override
+            public Mono<String> lastMessageID(XMessage msg, Function<String, Mono<XMessageDAO>> latestMessage) {
+                return Mono.just("second");
+            }
+        };
+        assertSame(first, new MessageTypeRegistry(Arrays.asList(first, second)).handler(XMessage.MessageType.TEXT));
+    }
+
+    @Test
+    public void testReplyIsRoutedWithItsLastMessage() {
+        XMessage msg = message(XMessage.MessageType.TEXT, XMessage.MessageState.REPLIED);
+        MessageRoute route = registry.handler(msg.getMessageType()).resolve(msg, userID -> Mono.just(new XMessageDAO())).block();
+        assertEquals(MessageRoute.TRANSFORMER, route);
+        assertEquals("", msg.getLastMessageID());
+    }
+
+    @Test
+    public void testMessageWithoutLastMessageIsStillRouted() {
+        XMessage unhandled = message(XMessage.MessageType.BROADCAST_TEXT, XMessage.MessageState.REPLIED);
+        assertEquals(MessageRoute.TRANSFORMER, registry.handler(unhandled.getMessageType())
+                .resolve(unhandled, userID -> Mono.error(new IllegalStateException("not expected"))).block());
+        assertNull(unhandled.getLastMessageID());
+
+        // A user without recent history
+        XMessage firstReply = message(XMessage.MessageType.TEXT, XMessage.MessageState.OPTED_IN);
+        assertEquals(MessageRoute.TRANSFORMER, registry.handler(firstReply.getMessageType())
+                .resolve(firstReply, userID -> Mono.empty()).block());
+        assertNull(firstReply.getLastMessageID());
+    }
+
+    @Test
+    public void testOtherStatesStopHere() {
+        XMessage msg = message(XMessage.MessageType.TEXT, XMessage.MessageState.DELIVERED);
+        assertEquals(MessageRoute.NONE, registry.handler(msg.getMessageType()).resolve(msg, userID -> Mono.empty()).block());
+    }
+}
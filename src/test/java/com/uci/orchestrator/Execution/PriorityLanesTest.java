@@ -0,0 +1,90 @@
+package com.uci.orchestrator.Execution;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.MonoProcessor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriorityLanesTest {
+
+    @Test
+    public void testBulkCannotTakeInteractiveReserve() {
+        PriorityLanes lanes = new PriorityLanes(3, 1, 10, new SimpleMeterRegistry());
+        MonoProcessor<String> work = MonoProcessor.create();
+
+        lanes.run(PriorityLanes.Lane.BULK, () -> work).subscribe();
+        lanes.run(PriorityLanes.Lane.BULK, () -> work).subscribe();
+        lanes.run(PriorityLanes.Lane.BULK, () -> work).subscribe();
+        assertEquals(2, lanes.inFlight(PriorityLanes.Lane.BULK));
+        assertEquals(1, lanes.queued(PriorityLanes.Lane.BULK));
+
+        lanes.run(PriorityLanes.Lane.INTERACTIVE, () -> work).subscribe();
+        assertEquals(1, lanes.inFlight(PriorityLanes.Lane.INTERACTIVE));
+    }
+
+    @Test
+    public void testFreedPermitGoesToInteractiveFirst() {
+        PriorityLanes lanes = new PriorityLanes(1, 0, 10, new SimpleMeterRegistry());
+        MonoProcessor<String> first = MonoProcessor.create();
+
+        lanes.run(PriorityLanes.Lane.BULK, () -> first).subscribe();
+        lanes.run(PriorityLanes.Lane.BULK, () -> MonoProcessor.<String>create()).subscribe();
+        lanes.run(PriorityLanes.Lane.INTERACTIVE, () -> MonoProcessor.<String>create()).subscribe();
+
+        first.onNext("done");
+        assertEquals(1, lanes.inFlight(PriorityLanes.Lane.INTERACTIVE));
+        assertEquals(0, lanes.inFlight(PriorityLanes.Lane.BULK));
+        assertEquals(1, lanes.queued(PriorityLanes.Lane.BULK));
+    }
+
+    @Test
+    public void testFullQueueIsRejected() {
+        PriorityLanes lanes = new PriorityLanes(1, 0, 1, new SimpleMeterRegistry());
+        lanes.run(PriorityLanes.Lane.BULK, () -> MonoProcessor.<String>create()).subscribe();
+        lanes.run(PriorityLanes.Lane.BULK, () -> MonoProcessor.<String>create()).subscribe();
+
+        assertThrows(LaneSaturatedException.class, () -> lanes.run(PriorityLanes.Lane.BULK, () -> MonoProcessor.<String>create()).block());
+    }
+
+    @Test
+    public void testInteractiveWorkIsNeverRejected() {
+        PriorityLanes lanes = new PriorityLanes(1, 0, 1, new SimpleMeterRegistry());
+        lanes.run(PriorityLanes.Lane.INTERACTIVE, () -> MonoProcessor.<String>create()).subscribe();
+        lanes.run(PriorityLanes.Lane.INTERACTIVE, () -> MonoProcessor.<String>create()).subscribe();
+        lanes.run(PriorityLanes.Lane.INTERACTIVE, () -> MonoProcessor.<String>create()).subscribe();
+
+        assertEquals(1, lanes.inFlight(PriorityLanes.Lane.INTERACTIVE));
+        assertEquals(2, lanes.queued(PriorityLanes.Lane.INTERACTIVE));
+    }
+
+    @Test
+    public void testPermitGrantedToCancelledWorkIsReturned() {
+        PriorityLanes lanes = new PriorityLanes(1, 0, 10, new SimpleMeterRegistry());
+        Disposable[] second = new Disposable[1];
+        lanes.run(PriorityLanes.Lane.BULK, () -> MonoProcessor.<String>create()).subscribe();
+        // The first queued work cancels the second after both were taken from the queue
+        lanes.run(PriorityLanes.Lane.BULK, () -> {
+            second[0].dispose();
+            return MonoProcessor.<String>create();
+        }).subscribe();
+        second[0] = lanes.run(PriorityLanes.Lane.BULK, () -> MonoProcessor.<String>create()).subscribe();
+
+        lanes.setLimits(3, 0);
+        assertEquals(2, lanes.inFlight(PriorityLanes.Lane.BULK));
+        assertEquals(0, lanes.queued(PriorityLanes.Lane.BULK));
+    }
+
+    @Test
+    public void testRaisingLimitsGrantsQueuedWork() {
+        PriorityLanes lanes = new PriorityLanes(1, 0, 10, new SimpleMeterRegistry());
+        lanes.run(PriorityLanes.Lane.BULK, () -> MonoProcessor.<String>create()).subscribe();
+        lanes.run(PriorityLanes.Lane.BULK, () -> MonoProcessor.<String>create()).subscribe();
+        assertEquals(1, lanes.queued(PriorityLanes.Lane.BULK));
+
+        lanes.setLimits(4, 1);
+        assertEquals(2, lanes.inFlight(PriorityLanes.Lane.BULK));
+        assertEquals(0, lanes.queued(PriorityLanes.Lane.BULK));
+    }
+}
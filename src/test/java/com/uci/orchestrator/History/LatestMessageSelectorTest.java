@@ -0,0 +1,68 @@
+package com.uci.orchestrator.History;
+
+import com.uci.dao.models.XMessageDAO;
+import messagerosa.core.model.XMessage;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatestMessageSelectorTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    @Test
+    public void testSelectsLatestSentOrRepliedRegardlessOfOrder() {
+        XMessageDAO oldSent = message(XMessage.MessageState.SENT.name(), NOW.minusHours(3));
+        XMessageDAO latestReplied = message(XMessage.MessageState.REPLIED.name(), NOW.minusHours(1));
+        XMessageDAO newerDelivered = message(XMessage.MessageState.DELIVERED.name(), NOW);
+        XMessageDAO sent = message(XMessage.MessageState.SENT.name(), NOW.minusHours(2));
+        List<XMessageDAO> history = Arrays.asList(oldSent, latestReplied, newerDelivered, sent);
+
+        // The previous code returned the first element of the unfiltered history
+        assertSame(latestReplied, LatestMessageSelector.SENT_OR_REPLIED.select(history));
+        assertSame(latestReplied, LatestMessageSelector.SENT_OR_REPLIED.select(Flux.fromIterable(history)).block());
+    }
+
+    @Test
+    public void testIgnoresUnknownStatesAndMissingTimestamps() {
+        XMessageDAO sent = message(XMessage.MessageState.SENT.name(), NOW.minusHours(2));
+        List<XMessageDAO> history = Arrays.asList(message("NOT_A_STATE", NOW), message(null, NOW),
+                message(XMessage.MessageState.SENT.name(), null), sent);
+
+        assertSame(sent, LatestMessageSelector.SENT_OR_REPLIED.select(history));
+    }
+
+    @Test
+    public void testNoMatchingMessage() {
+        List<XMessageDAO> history = Collections.singletonList(message(XMessage.MessageState.DELIVERED.name(), NOW));
+
+        assertNull(LatestMessageSelector.SENT_OR_REPLIED.select(history));
+        assertNull(LatestMessageSelector.SENT_OR_REPLIED.select(Flux.fromIterable(history)).block());
+        assertNull(LatestMessageSelector.SENT_OR_REPLIED.select(Collections.<XMessageDAO>emptyList()));
+    }
+
+    @Test
+    public void testSingleStateSelectsLatestNotOldest() {
+        XMessageDAO older = message(XMessage.MessageState.REPLIED.name(), NOW.minusHours(5));
+        XMessageDAO latest = message(XMessage.MessageState.REPLIED.name(), NOW.minusMinutes(5));
+        XMessageDAO sent = message(XMessage.MessageState.SENT.name(), NOW);
+
+        // deleteLastMessage previously sorted ascending and deleted the oldest match
+        LatestMessageSelector selector = LatestMessageSelector.of(LatestMessageSelector.state("REPLIED"));
+        assertSame(latest, selector.select(Flux.just(older, sent, latest)).block());
+        assertNull(LatestMessageSelector.state("NOT_A_STATE"));
+    }
+
+    private XMessageDAO message(String state, LocalDateTime timestamp) {
+        XMessageDAO message = new XMessageDAO();
+        message.setMessageState(state);
+        message.setTimestamp(timestamp);
+        return message;
+    }
+}
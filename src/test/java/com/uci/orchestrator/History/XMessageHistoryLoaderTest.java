@@ -0,0 +1,99 @@
+package com.uci.orchestrator.History;
+
+import com.uci.dao.models.XMessageDAO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import messagerosa.core.model.XMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XMessageHistoryLoaderTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+    private static final LatestMessageSelector SENT = LatestMessageSelector.of(XMessage.MessageState.SENT);
+
+    private final List<String> queries = new ArrayList<>();
+    private final AtomicInteger completed = new AtomicInteger();
+
+    private XMessageHistoryLoader loader() {
+        XMessageHistoryLoader loader = new XMessageHistoryLoader() {
+            @Override
+            Mono<XMessageDAO> query(String userID, LocalDateTime since, LatestMessageSelector selector) {
+                synchronized (queries) {
+                    queries.add(userID);
+                }
+                return selector.select(Flux.just(message(NOW.minusHours(3)), message(NOW.minusHours(1)))
+                        .filter(message -> message.getTimestamp().isAfter(since))
+                        .delaySubscription(Duration.ofMillis(50)))
+                        .doOnTerminate(completed::incrementAndGet);
+            }
+        };
+        ReflectionTestUtils.setField(loader, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(loader, "coalescingEnabled", true);
+        loader.init();
+        return loader;
+    }
+
+    @Test
+    public void testConcurrentLookupsForSameUserShareOneQuery() {
+        XMessageHistoryLoader loader = loader();
+        Mono<XMessageDAO> first = loader.latest("user", NOW.minusDays(1), SENT);
+        Mono<XMessageDAO> second = loader.latest("user", NOW.minusHours(2), SENT);
+        Mono<XMessageDAO> other = loader.latest("other", NOW.minusDays(1), SENT);
+
+        List<XMessageDAO> results = Mono.zip(first, second, other).map(t -> Arrays.asList(t.getT1(), t.getT2(), t.getT3())).block();
+        assertEquals(Arrays.asList("user", "other"), queries);
+        assertEquals(NOW.minusHours(1), results.get(0).getTimestamp());
+        assertEquals(NOW.minusHours(1), results.get(1).getTimestamp());
+        assertEquals(NOW.minusHours(1), results.get(2).getTimestamp());
+    }
+
+    @Test
+    public void testJoiningLookupOutsideItsBoundGetsNothing() {
+        XMessageHistoryLoader loader = loader();
+        Mono<XMessageDAO> wide = loader.latest("user", NOW.minusDays(1), SENT);
+        // The latest message of the shared query is older than this lookup's bound
+        Mono<XMessageDAO> narrow = loader.latest("user", NOW.minusMinutes(30), SENT);
+
+        List<Boolean> found = Mono.zip(wide.hasElement(), narrow.hasElement()).map(t -> Arrays.asList(t.getT1(), t.getT2())).block();
+        assertEquals(Arrays.asList(true, false), found);
+        assertEquals(1, queries.size());
+    }
+
+    @Test
+    public void testWiderLookupIsNotServedByNarrowerQuery() {
+        XMessageHistoryLoader loader = loader();
+        Mono<XMessageDAO> narrow = loader.latest("user", NOW.minusMinutes(30), SENT);
+        Mono<XMessageDAO> wide = loader.latest("user", NOW.minusDays(1), SENT);
+
+        List<Boolean> found = Mono.zip(narrow.hasElement(), wide.hasElement()).map(t -> Arrays.asList(t.getT1(), t.getT2())).block();
+        assertEquals(Arrays.asList(false, true), found);
+        assertEquals(2, queries.size());
+    }
+
+    @Test
+    public void testCompletedQueryIsNotReused() {
+        XMessageHistoryLoader loader = loader();
+        loader.latest("user", NOW.minusDays(1), SENT).block();
+        loader.latest("user", NOW.minusDays(1), SENT).block();
+        assertEquals(2, queries.size());
+        assertEquals(2, completed.get());
+    }
+
+    private XMessageDAO message(LocalDateTime timestamp) {
+        XMessageDAO message = new XMessageDAO();
+        message.setTimestamp(timestamp);
+        message.setMessageState(XMessage.MessageState.SENT.name());
+        return message;
+    }
+}
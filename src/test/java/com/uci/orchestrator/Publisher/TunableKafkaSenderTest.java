@@ -0,0 +1,50 @@
+package com.uci.orchestrator.Publisher;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import reactor.kafka.sender.SenderOptions;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TunableKafkaSenderTest {
+
+    private TunableKafkaSender<String, String> sender() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        properties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        properties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        properties.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        return new TunableKafkaSender<>("test", SenderOptions.create(properties), Duration.ofMillis(10));
+    }
+
+    @Test
+    public void testInvalidConfigurationIsRejected() {
+        TunableKafkaSender<String, String> sender = sender();
+        try {
+            assertThrows(IllegalArgumentException.class,
+                    () -> sender.reconfigure(Collections.singletonMap(ProducerConfig.LINGER_MS_CONFIG, -1)));
+            assertThrows(IllegalArgumentException.class,
+                    () -> sender.reconfigure(Collections.singletonMap(ProducerConfig.ACKS_CONFIG, "some")));
+            assertEquals(5, sender.producerProperties().get(ProducerConfig.LINGER_MS_CONFIG));
+        } finally {
+            sender.close();
+        }
+    }
+
+    @Test
+    public void testValidConfigurationIsApplied() {
+        TunableKafkaSender<String, String> sender = sender();
+        try {
+            sender.reconfigure(Collections.singletonMap(ProducerConfig.LINGER_MS_CONFIG, 20));
+            assertEquals(20, sender.producerProperties().get(ProducerConfig.LINGER_MS_CONFIG));
+        } finally {
+            sender.close();
+        }
+    }
+}
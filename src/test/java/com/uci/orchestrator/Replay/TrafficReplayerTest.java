@@ -0,0 +1,79 @@
+package com.uci.orchestrator.Replay;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrafficReplayerTest {
+
+    private CapturedRecord inbound(String source) {
+        return new CapturedRecord(CapturedRecord.INBOUND, 0, source, "inbound", null, "message");
+    }
+
+    private CapturedRecord outbound(String source, String value) {
+        return new CapturedRecord(CapturedRecord.OUTBOUND, 0, source, "outbound", "key", value);
+    }
+
+    @Test
+    public void testOutputDifferences() {
+        List<CapturedRecord> inbound = Arrays.asList(inbound("s1"), inbound("s2"), inbound("s3"));
+        Map<String, List<CapturedRecord>> expected = new HashMap<>();
+        expected.put("s1", Arrays.asList(outbound("s1", "A"), outbound("s1", "B")));
+        expected.put("s2", Collections.singletonList(outbound("s2", "C")));
+        Map<String, List<CapturedRecord>> actual = new HashMap<>();
+        actual.put("s1", Arrays.asList(outbound("s1", "B"), outbound("s1", "X")));
+        actual.put("s3", Collections.singletonList(outbound("s3", "D")));
+
+        ReplayReport report = TrafficReplayer.report(1, inbound, new long[3], 0, 1000000000L, expected, actual, null);
+
+        assertEquals(3, report.getOutputs());
+        assertEquals(1, report.getMatchingOutputs());
+        assertEquals(1, report.getDifferingOutputs());
+        assertEquals(1, report.getMissingOutputs());
+        assertEquals(1, report.getUnexpectedOutputs());
+        assertEquals(Arrays.asList("s1", "s2", "s3"), report.getDifferingSources());
+    }
+
+    @Test
+    public void testIgnoredPartsAreNotCompared() {
+        List<CapturedRecord> inbound = Collections.singletonList(inbound("s1"));
+        Map<String, List<CapturedRecord>> expected = Collections.singletonMap("s1", Collections.singletonList(outbound("s1", "<id>1</id>hi")));
+        Map<String, List<CapturedRecord>> actual = Collections.singletonMap("s1", Collections.singletonList(outbound("s1", "<id>2</id>hi")));
+
+        ReplayReport report = TrafficReplayer.report(1, inbound, new long[1], 0, 1000000000L, expected, actual, Pattern.compile("<id>\\d+</id>"));
+
+        assertEquals(1, report.getMatchingOutputs());
+        assertEquals(0, report.getDifferingOutputs());
+        assertTrue(report.getDifferingSources().isEmpty());
+    }
+
+    @Test
+    public void testLatencyPercentilesAndThroughput() {
+        List<CapturedRecord> inbound = new ArrayList<>();
+        long[] latencies = new long[100];
+        for (int i = 0; i < latencies.length; i++) {
+            inbound.add(inbound("s" + i));
+            // 100 ms down to 1 ms, so the report has to sort them
+            latencies[i] = (100 - i) * 1000000L;
+        }
+
+        ReplayReport report = TrafficReplayer.report(0, inbound, latencies, 2, 2000000000L, new HashMap<>(), new HashMap<>(), null);
+
+        assertEquals(100, report.getRecords());
+        assertEquals(2, report.getFailures());
+        assertEquals(2000, report.getDurationMs());
+        assertEquals(50, report.getThroughputPerSecond(), 0.001);
+        assertEquals(50, report.getLatencyP50Ms(), 0.001);
+        assertEquals(90, report.getLatencyP90Ms(), 0.001);
+        assertEquals(99, report.getLatencyP99Ms(), 0.001);
+        assertEquals(100, report.getLatencyMaxMs(), 0.001);
+    }
+}
@@ -0,0 +1,102 @@
+package com.uci.orchestrator.Resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DependencyGuardTest {
+
+    private DependencyGuard guard(int maxConcurrency, Duration openDuration) {
+        return guard(maxConcurrency, openDuration, 10);
+    }
+
+    private DependencyGuard guard(int maxConcurrency, Duration openDuration, int maxQueued) {
+        DependencyGuard.Settings settings = DependencyGuard.Settings.builder()
+                .timeout(Duration.ofMillis(200))
+                .minConcurrency(1)
+                .maxConcurrency(maxConcurrency)
+                .windowSize(4)
+                .failureRateThreshold(50)
+                .openDuration(openDuration)
+                .halfOpenProbes(1)
+                .maxQueued(maxQueued)
+                .maxWait(Duration.ofSeconds(1))
+                .build();
+        return new DependencyGuard("test", settings, new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void testOpensAfterFailuresAndShedsLoad() {
+        DependencyGuard guard = guard(8, Duration.ofMinutes(1));
+        for (int i = 0; i < 2; i++) {
+            assertThrows(IllegalStateException.class, () -> guard.protect(Mono.error(new IllegalStateException())).block());
+        }
+        assertEquals(DependencyGuard.State.OPEN, guard.getState());
+        assertThrows(DependencyUnavailableException.class, () -> guard.protect(Mono.just("ok")).block());
+    }
+
+    @Test
+    public void testHalfOpenProbeClosesCircuit() throws Exception {
+        DependencyGuard guard = guard(8, Duration.ofMillis(50));
+        for (int i = 0; i < 2; i++) {
+            assertThrows(IllegalStateException.class, () -> guard.protect(Mono.error(new IllegalStateException())).block());
+        }
+        Thread.sleep(100);
+        assertEquals(DependencyGuard.State.HALF_OPEN, guard.getState());
+        assertEquals("ok", guard.protect(Mono.just("ok")).block());
+        assertEquals(DependencyGuard.State.CLOSED, guard.getState());
+    }
+
+    @Test
+    public void testTimesOutSlowCalls() {
+        DependencyGuard guard = guard(8, Duration.ofMinutes(1));
+        DependencyUnavailableException e = assertThrows(DependencyUnavailableException.class, () -> guard.protect(Mono.never()).block());
+        assertTrue(e.getCause() instanceof TimeoutException);
+        assertEquals(0, guard.getInFlight());
+    }
+
+    @Test
+    public void testMapsTransientFailuresOnly() {
+        DependencyGuard guard = guard(8, Duration.ofMinutes(1));
+        assertThrows(DependencyUnavailableException.class,
+                () -> guard.protect(Mono.error(new UncheckedIOException(new IOException("connection reset")))).block());
+        assertThrows(IllegalArgumentException.class, () -> guard.protect(Mono.error(new IllegalArgumentException())).block());
+    }
+
+    @Test
+    public void testWaitsForPermitInsteadOfFailing() {
+        DependencyGuard guard = guard(1, Duration.ofMinutes(1));
+        Mono<String> slow = guard.protect(Mono.delay(Duration.ofMillis(50)).thenReturn("first"));
+        Mono<String> queued = guard.protect(Mono.just("second"));
+        assertEquals("first,second", Mono.zip(slow, queued, (a, b) -> a + "," + b).block());
+        assertEquals(0, guard.getInFlight());
+        assertEquals(0, guard.getQueued());
+    }
+
+    @Test
+    public void testRejectsWhenWaitQueueIsFull() {
+        DependencyGuard guard = guard(1, Duration.ofMinutes(1), 1);
+        guard.protect(Mono.delay(Duration.ofMillis(100))).subscribe();
+        guard.protect(Mono.just("queued")).subscribe();
+        assertEquals(1, guard.getQueued());
+        assertThrows(DependencyUnavailableException.class, () -> guard.protect(Mono.just("rejected")).block());
+    }
+
+    @Test
+    public void testCancelledWaiterDoesNotLeakPermit() throws Exception {
+        DependencyGuard guard = guard(1, Duration.ofMinutes(1));
+        guard.protect(Mono.delay(Duration.ofMillis(50))).subscribe();
+        guard.protect(Mono.just("cancelled")).subscribe().dispose();
+        assertEquals(0, guard.getQueued());
+        Thread.sleep(100);
+        assertEquals(0, guard.getInFlight());
+        assertEquals("ok", guard.protect(Mono.just("ok")).block());
+    }
+}